@@ -0,0 +1,198 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the fastest available solver for each call according to the number of cards searched.
+ * Calls are grouped in buckets of similar sizes (powers of 2), and a bucket is split where a solver's size limit falls
+ * inside it, so every call only runs solvers that are eligible for its exact number of cards. Calls that stop at the
+ * first set (hasSet) have their own buckets, since an early exit says little about the cost of a full enumeration.
+ * The first calls of each bucket are spread over all the eligible solvers and timed, and after CALIBRATION_ROUNDS
+ * calls per solver the bucket sticks to the fastest one.
+ * Single-card queries (findSetsFrom, findSetsContaining) are too short to time and go to the fastest sequential
+ * solver for the configuration.
+ */
+public class AutoSetSolver implements SetSolver {
+
+    /**
+     * The number of timed calls per solver before a bucket chooses its solver.
+     */
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    /**
+     * Brute force is only considered for up to this many cards (beyond that it is never competitive, and a single
+     * calibration call might take very long).
+     */
+    private static final int BRUTE_FORCE_MAX_CARDS = 32;
+
+    /**
+     * The game configuration.
+     */
+    private final Config config;
+
+    /**
+     * All the available solvers (except for this one) and their providers.
+     */
+    private final List<SetSolver> solvers = new ArrayList<>();
+    private final List<SetSolverProvider> providers = new ArrayList<>();
+
+    /**
+     * The solver for single-card queries.
+     */
+    private final SetSolver sequential;
+
+    /**
+     * The calibration state of each bucket, keyed by the bit length of the number of cards (from bit 33), whether the
+     * calls stop at the first set (bit 32) and the mask of the eligible solvers (low half).
+     */
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+
+    public AutoSetSolver(Config config, Util util) {
+        this.config = config;
+        SetSolver fastestSequential = null;
+        for (SetSolverProvider provider : SetSolvers.providers(config))
+            if (!(provider instanceof SetSolvers.Auto)) {
+                SetSolver solver = provider.create(config, util);
+                solvers.add(solver);
+                providers.add(provider);
+                if (provider instanceof SetSolvers.Pairs || provider instanceof SetSolvers.Generalized)
+                    fastestSequential = solver;
+            }
+        sequential = fastestSequential != null ? fastestSequential : SetSolvers.sequential(config, util);
+    }
+
+    @Override
+    public int findSetsFrom(int[] cards, int lead, BitSet present, int limit, List<int[]> sets) {
+        return sequential.findSetsFrom(cards, lead, present, limit, sets);
+    }
+
+    @Override
+    public int findSetsContaining(int card, int[] others, BitSet present, int limit, List<int[]> sets) {
+        return sequential.findSetsContaining(card, others, present, limit, sets);
+    }
+
+    @Override
+    public int findSets(int[] cards, BitSet present, int limit, List<int[]> sets) {
+        Bucket bucket = bucket(cards.length, limit);
+        int solver = bucket.next();
+        if (solver == bucket.chosen) return solvers.get(solver).findSets(cards, present, limit, sets);
+
+        long start = System.nanoTime();
+        int found = solvers.get(solver).findSets(cards, present, limit, sets);
+        bucket.record(solver, System.nanoTime() - start);
+        return found;
+    }
+
+    @Override
+    public void close() {
+        for (SetSolver solver : solvers)
+            solver.close();
+    }
+
+    /**
+     * Returns the name of the solver a bucket of full enumerations settled on.
+     *
+     * @param cards - the number of cards searched.
+     * @return - the name of the chosen solver, or null if the bucket is still calibrating.
+     */
+    public String chosen(int cards) {
+        return chosen(cards, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the name of the solver a bucket settled on.
+     *
+     * @param cards - the number of cards searched.
+     * @param limit - the maximum number of sets the calls find.
+     * @return - the name of the chosen solver, or null if the bucket is still calibrating.
+     */
+    public String chosen(int cards, int limit) {
+        Bucket bucket = bucket(cards, limit);
+        synchronized (bucket) {
+            return bucket.chosen >= 0 ? providers.get(bucket.chosen).name() : null;
+        }
+    }
+
+    private synchronized Bucket bucket(int cards, int limit) {
+        long mask = 0;
+        for (int i = 0; i < solvers.size(); ++i)
+            if (eligible(i, cards)) mask |= 1L << i;
+        long key = (long) (Integer.SIZE - Integer.numberOfLeadingZeros(cards)) << 33 | (limit == 1 ? 1L << 32 : 0)
+                | mask;
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) buckets.put(key, bucket = new Bucket(mask));
+        return bucket;
+    }
+
+    /**
+     * Checks if a solver is worth trying for collections of the given number of cards.
+     */
+    private boolean eligible(int solver, int cards) {
+        SetSolverProvider provider = providers.get(solver);
+        if (provider instanceof SetSolvers.BruteForce) return cards <= BRUTE_FORCE_MAX_CARDS || solvers.size() == 1;
+        if (provider instanceof SetSolvers.Parallel)
+            return config.parallelSearchThreshold > 0 && cards >= config.parallelSearchThreshold;
+        return true;
+    }
+
+    /**
+     * The calibration state of the calls with a similar number of cards.
+     */
+    private class Bucket {
+
+        /**
+         * The indices of the eligible solvers.
+         */
+        final int[] candidates;
+
+        /**
+         * The total time of the timed calls of each candidate, and the number of calls handed out so far.
+         */
+        final long[] nanos;
+        int calls;
+
+        /**
+         * The index of the chosen solver (-1 while calibrating).
+         */
+        volatile int chosen = -1;
+
+        /**
+         * @param mask - the eligible solvers (bit i is set iff solver i is eligible).
+         */
+        Bucket(long mask) {
+            List<Integer> eligible = new ArrayList<>();
+            for (int i = 0; i < solvers.size(); ++i)
+                if ((mask & 1L << i) != 0) eligible.add(i);
+            if (eligible.isEmpty()) eligible.add(0);
+            candidates = eligible.stream().mapToInt(Integer::intValue).toArray();
+            nanos = new long[candidates.length];
+            if (candidates.length == 1) chosen = candidates[0];
+        }
+
+        /**
+         * @return - the index of the solver to run the next call.
+         */
+        synchronized int next() {
+            if (chosen >= 0) return chosen;
+            return candidates[calls++ % candidates.length];
+        }
+
+        /**
+         * Records the time of a calibration call, and chooses the fastest solver once calibration is over.
+         */
+        synchronized void record(int solver, long time) {
+            for (int i = 0; i < candidates.length; ++i)
+                if (candidates[i] == solver) nanos[i] += time;
+            if (chosen < 0 && calls >= CALIBRATION_ROUNDS * candidates.length) {
+                int fastest = 0;
+                for (int i = 1; i < candidates.length; ++i)
+                    if (nanos[i] < nanos[fastest]) fastest = i;
+                chosen = candidates[fastest];
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds sets by testing every combination of featureSize cards. Works for any feature size and count, and has the
+ * least overhead for small collections of cards (e.g. the cards on the table).
+ */
+public class BruteForceSetSolver implements SetSolver {
+
+    /**
+     * The number of cards in a set.
+     */
+    private final int setSize;
+
+    /**
+     * Used for testing each combination.
+     */
+    private final Util util;
+
+    public BruteForceSetSolver(Config config, Util util) {
+        setSize = config.featureSize;
+        this.util = util;
+    }
+
+    @Override
+    public int findSetsFrom(int[] cards, int lead, BitSet present, int limit, List<int[]> sets) {
+        return walkCombinations(cards, lead + 1, cards[lead], limit, sets, false);
+    }
+
+    @Override
+    public int findSetsContaining(int card, int[] others, BitSet present, int limit, List<int[]> sets) {
+        return walkCombinations(others, 0, card, limit, sets, true);
+    }
+
+    /**
+     * Tests the given card together with every combination of featureSize - 1 cards from pool[from..].
+     *
+     * @return - the number of sets found.
+     */
+    private int walkCombinations(int[] pool, int from, int card, int limit, List<int[]> sets, boolean sort) {
+        int n = pool.length - from;
+        int r = setSize - 1;
+        if (n < r) return 0;
+        int found = 0;
+        int[] combination = new int[r];
+        int[] cardsToTest = new int[r + 1];
+        cardsToTest[0] = card;
+        for (int i = 0; i < r; ++i)
+            combination[i] = i;
+
+        while (found < limit && (r == 0 || combination[r - 1] < n)) {
+            for (int i = 0; i < r; ++i)
+                cardsToTest[i + 1] = pool[from + combination[i]];
+            if (util.testSet(cardsToTest)) {
+                if (sets != null) {
+                    int[] set = cardsToTest.clone();
+                    if (sort) Arrays.sort(set);
+                    sets.add(set);
+                }
+                ++found;
+            }
+            if (r == 0) break;
+
+            // generate next combination in lexicographic order
+            int t = r - 1;
+            while (t != 0 && combination[t] == n - r + t) --t;
+            combination[t]++;
+            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,161 @@
+package bguspl.set;
+
+/**
+ * A bit-packed representation of the cards, used for testing sets without decoding the card ids.
+ * Each feature of a card occupies a lane of (featureSize + 1) bits of a long: the low featureSize bits hold the
+ * feature value one-hot encoded, and the high bit of the lane is a guard bit that is always 0 in a packed card.
+ */
+public class CardEncoding {
+
+    /**
+     * The number of cards in a set.
+     */
+    private final int setSize;
+
+    /**
+     * The number of features on the cards.
+     */
+    private final int featureCount;
+
+    /**
+     * The number of bits per feature lane.
+     */
+    private final int laneWidth;
+
+    /**
+     * The packed card of each card id.
+     */
+    private final long[] packed;
+
+    /**
+     * The value bits of all the lanes.
+     */
+    private final long valueMask;
+
+    /**
+     * The guard bits of all the lanes.
+     */
+    private final long guardMask;
+
+    public CardEncoding(Config config) {
+        if (!supports(config))
+            throw new IllegalArgumentException("cannot pack " + config.featureCount + " features of size "
+                    + config.featureSize + " in a long");
+        setSize = config.featureSize;
+        featureCount = config.featureCount;
+        laneWidth = config.featureSize + 1;
+
+        long values = 0, guards = 0;
+        for (int i = 0; i < config.featureCount; ++i) {
+            values |= ((1L << config.featureSize) - 1) << (i * laneWidth);
+            guards |= 1L << (i * laneWidth + config.featureSize);
+        }
+        valueMask = values;
+        guardMask = guards;
+
+        packed = new long[config.deckSize];
+        for (int card = 0; card < config.deckSize; ++card) {
+            long bits = 0;
+            for (int i = 0; i < config.featureCount; ++i)
+                bits |= 1L << (i * laneWidth + config.featureMatrix.feature(card, i));
+            packed[card] = bits;
+        }
+    }
+
+    /**
+     * Checks if the cards can be packed with the given configuration.
+     *
+     * @param config - the game configuration.
+     * @return - true iff all the feature lanes fit in a long.
+     */
+    public static boolean supports(Config config) {
+        return config.featureSize >= 1 && config.featureCount * (config.featureSize + 1) <= Long.SIZE;
+    }
+
+    /**
+     * Returns the packed representation of a card.
+     *
+     * @param card - the card id.
+     * @return - the card features, one-hot encoded in their lanes.
+     */
+    public long pack(int card) {
+        return packed[card];
+    }
+
+    /**
+     * Checks if an array of featureSize cards forms a legal set, testing all the features at once.
+     *
+     * @param cards - the array of cards (of length config.featureSize).
+     * @return - true iff the array forms a legal set.
+     */
+    public boolean testSet(int[] cards) {
+        long common = valueMask, used = 0;
+        for (int card : cards) {
+            common &= packed[card];
+            used |= packed[card];
+        }
+        return isLegal(common, used);
+    }
+
+    /**
+     * Checks if the given lanes describe a legal set of featureSize cards.
+     *
+     * @param common - the bitwise and of the packed cards.
+     * @param used   - the bitwise or of the packed cards.
+     * @return - true iff in every lane the cards share a value, or all the values are used.
+     */
+    public boolean isLegal(long common, long used) {
+        // adding the value mask carries into the guard bit of a lane iff the lane has any value bit set
+        long same = (common + valueMask) & guardMask;
+        long missing = ((~used & valueMask) + valueMask) & guardMask;
+        return (missing & ~same) == 0;
+    }
+
+    /**
+     * Checks if a card can extend a partial set of at least two cards.
+     *
+     * @param common - the bitwise and of the packed cards of the partial set.
+     * @param used   - the bitwise or of the packed cards of the partial set.
+     * @param card   - the packed card to test.
+     * @return - true iff in every lane the card has the shared value, or a value the partial set does not use yet.
+     */
+    public boolean extendsSet(long common, long used, long card) {
+        // a lane of two or more cards either shares a single value (common != 0) or is all different (common == 0)
+        long same = (common + valueMask) & guardMask;
+        long hit = ((card & used) + valueMask) & guardMask;
+        return same == hit;
+    }
+
+    /**
+     * Returns the only card that completes a partial set of featureSize - 1 (at least two) cards.
+     *
+     * @param common - the bitwise and of the packed cards of the partial set.
+     * @param used   - the bitwise or of the packed cards of the partial set.
+     * @return - the packed completing card (the shared value or the single unused value in each lane).
+     */
+    public long completeSet(long common, long used) {
+        // spread the guard bit of each lane that shares a value over the value bits of that lane
+        long sameLanes = (((common + valueMask) & guardMask) >>> setSize) * ((1L << setSize) - 1);
+        return (common & sameLanes) | (~used & valueMask & ~sameLanes);
+    }
+
+    /**
+     * Converts a packed card back to its card id.
+     *
+     * @param bits - the packed card.
+     * @return - the card id.
+     */
+    public int unpack(long bits) {
+        int card = 0;
+        for (int i = 0; i < featureCount; ++i)
+            card = card * setSize + Long.numberOfTrailingZeros(bits >>> (i * laneWidth));
+        return card;
+    }
+
+    /**
+     * Returns the number of cards in a set (i.e. the number of cards testSet expects).
+     */
+    public int setSize() {
+        return setSize;
+    }
+}
@@ -36,6 +36,26 @@ public class Config {
      */
     public final int deckSize;
 
+    /**
+     * The features of every card in the deck (computed once when the configuration is loaded)
+     */
+    public final FeatureMatrix featureMatrix;
+
+    /**
+     * The name of the algorithm used for finding sets (auto picks one per call, see SetSolvers for the others)
+     */
+    public final String setSolver;
+
+    /**
+     * The minimal number of cards to search for sets in parallel (0 to always search on the calling thread)
+     */
+    public final int parallelSearchThreshold;
+
+    /**
+     * The number of threads used for searching sets in parallel (0 to use the common fork/join pool)
+     */
+    public final int searchThreads;
+
     /**
      * The number of human players in the game.
      */
@@ -56,6 +76,56 @@ public class Config {
      */
     public final boolean hints;
 
+    /**
+     * The number of threads verifying submitted sets concurrently (0 for the dealer to verify them)
+     */
+    public final int verifierThreads;
+
+    /**
+     * Whether to run the dealer and the players on virtual threads (needs Java 21, ignored on older versions)
+     */
+    public final boolean virtualThreads;
+
+    /**
+     * The number of threads running the computer players' key presses
+     */
+    public final int botThreads;
+
+    /**
+     * The number of milliseconds between two key presses of a computer player
+     */
+    public final long botDelayMillis;
+
+    /**
+     * The maximal number of key presses per second of each computer player (0 for unlimited)
+     */
+    public final double botActionsPerSecond;
+
+    /**
+     * The maximal number of key presses per second of all the computer players together (0 for unlimited)
+     */
+    public final double botActionBudget;
+
+    /**
+     * How the computer players choose their key presses: random slots, or smart (they look for sets on the table)
+     */
+    public final String botStrategy;
+
+    /**
+     * The mean number of milliseconds a smart computer player takes to react to a change of the table
+     */
+    public final long botReactionMillis;
+
+    /**
+     * The standard deviation of the reaction time of smart computer players, in milliseconds
+     */
+    public final long botReactionDeviationMillis;
+
+    /**
+     * The seed of the random generator the dealer draws cards with (0 for a different game every time)
+     */
+    public final long randomSeed;
+
     /**
      * The number of milliseconds until the dealer reshuffles the deck (0 show timer since last action, -1 show nothing)
      */
@@ -197,6 +267,10 @@ public class Config {
         featureSize = Integer.parseInt(properties.getProperty("FeatureSize", "3"));
         featureCount = Integer.parseInt(properties.getProperty("FeatureCount", "4"));
         deckSize = (int) Math.pow(featureSize, featureCount);
+        featureMatrix = new FeatureMatrix(featureSize, featureCount, deckSize);
+        setSolver = properties.getProperty("SetSolver", "auto").trim();
+        parallelSearchThreshold = Integer.parseInt(properties.getProperty("ParallelSearchThreshold", "256"));
+        searchThreads = Integer.parseInt(properties.getProperty("SearchThreads", "0"));
 
         // gameplay settings
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
@@ -204,6 +278,18 @@ public class Config {
         players = humanPlayers + computerPlayers;
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
+        verifierThreads = Integer.parseInt(properties.getProperty("VerifierThreads", "0"));
+        virtualThreads = Boolean.parseBoolean(properties.getProperty("VirtualThreads", "False"));
+        if (virtualThreads && !GameThreads.virtualThreadsSupported())
+            logger.severe("warning: virtual threads are not supported by this JVM, using platform threads.");
+        botThreads = Integer.parseInt(properties.getProperty("BotThreads", "1"));
+        botDelayMillis = (long) (Double.parseDouble(properties.getProperty("BotDelaySeconds", "0.01")) * 1000.0);
+        botActionsPerSecond = Double.parseDouble(properties.getProperty("BotActionsPerSecond", "0"));
+        botActionBudget = Double.parseDouble(properties.getProperty("BotActionBudget", "0"));
+        botStrategy = properties.getProperty("BotStrategy", "random").trim();
+        botReactionMillis = (long) (Double.parseDouble(properties.getProperty("BotReactionSeconds", "1")) * 1000.0);
+        botReactionDeviationMillis = (long) (Double.parseDouble(properties.getProperty("BotReactionDeviationSeconds", "0.25")) * 1000.0);
+        randomSeed = Long.parseLong(properties.getProperty("RandomSeed", "0").trim());
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
         turnTimeoutWarningMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutWarningSeconds", "60")) * 1000.0);
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
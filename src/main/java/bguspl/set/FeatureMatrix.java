@@ -0,0 +1,80 @@
+package bguspl.set;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The features of all the cards in the deck, computed once and never changed.
+ * The features are stored in a single flat array of deckSize * featureCount bytes: the features of card c are at
+ * indices c * featureCount to (c + 1) * featureCount - 1, in the same order as Util.cardToFeatures returns them.
+ */
+public class FeatureMatrix {
+
+    /**
+     * The number of features on the cards.
+     */
+    private final int featureCount;
+
+    /**
+     * The features of all the cards, one row of featureCount bytes per card.
+     */
+    private final byte[] features;
+
+    /**
+     * @param featureSize  - the number of choices for each feature (at most 127).
+     * @param featureCount - the number of features on the cards.
+     * @param deckSize     - the number of cards in the deck (i.e. featureSize ^ featureCount).
+     */
+    public FeatureMatrix(int featureSize, int featureCount, int deckSize) {
+        if (featureSize > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("feature size " + featureSize + " does not fit in a byte");
+        this.featureCount = featureCount;
+        features = new byte[deckSize * featureCount];
+        for (int card = 0; card < deckSize; ++card) {
+            int rest = card;
+            for (int i = featureCount - 1; i >= 0; --i) {
+                features[card * featureCount + i] = (byte) (rest % featureSize);
+                rest /= featureSize;
+            }
+        }
+    }
+
+    /**
+     * Returns a single feature of a card.
+     *
+     * @param card    - the card id.
+     * @param feature - the feature index (between 0 and featureCount - 1).
+     * @return - the feature value (between 0 and featureSize - 1).
+     */
+    public int feature(int card, int feature) {
+        return features[card * featureCount + feature];
+    }
+
+    /**
+     * Copies the features of a card into the given array.
+     *
+     * @param card     - the card id.
+     * @param features - an array of at least featureCount values to copy into.
+     */
+    public void copyFeatures(int card, int[] features) {
+        int row = card * featureCount;
+        for (int i = 0; i < featureCount; ++i)
+            features[i] = this.features[row + i];
+    }
+
+    /**
+     * Returns a read-only view of the features of a card, without copying them.
+     *
+     * @param card - the card id.
+     * @return - a buffer of featureCount bytes, positioned at the first feature.
+     */
+    public ByteBuffer view(int card) {
+        return ByteBuffer.wrap(features, card * featureCount, featureCount).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return - the number of features on the cards.
+     */
+    public int featureCount() {
+        return featureCount;
+    }
+}
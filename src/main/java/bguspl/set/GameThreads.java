@@ -0,0 +1,65 @@
+package bguspl.set;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the game threads (the dealer, the players and the computer players' key generators).
+ * When the configuration asks for virtual threads and the running JVM supports them (Java 21 or later), the threads
+ * are virtual; otherwise they are regular platform threads. Virtual threads are created through reflection, so the
+ * game still compiles and runs on Java 8.
+ */
+public final class GameThreads {
+
+    /**
+     * Thread.ofVirtual(), Thread.Builder.name(String) and Thread.Builder.unstarted(Runnable), or null if the JVM does
+     * not support virtual threads.
+     */
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method UNSTARTED;
+
+    static {
+        Method ofVirtual = null, name = null, unstarted = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+            unstarted.invoke(name.invoke(ofVirtual.invoke(null), "probe"), (Runnable) () -> {
+            }); // preview builds throw here unless preview features are enabled
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        UNSTARTED = unstarted;
+    }
+
+    private GameThreads() {
+    }
+
+    /**
+     * @return - true iff the running JVM can create virtual threads.
+     */
+    public static boolean virtualThreadsSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a new (unstarted) game thread.
+     *
+     * @param config - the game configuration (decides whether the thread is virtual).
+     * @param task   - the code the thread runs.
+     * @param name   - the thread name.
+     * @return - a virtual thread if the configuration asks for one and the JVM supports it, or a platform thread.
+     */
+    public static Thread newThread(Config config, Runnable task, String name) {
+        if (config.virtualThreads && OF_VIRTUAL != null) {
+            try {
+                return (Thread) UNSTARTED.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), name), task);
+            } catch (ReflectiveOperationException ignored) {
+            }
+        }
+        return new Thread(task, name);
+    }
+}
@@ -0,0 +1,108 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds sets of featureSize cards for feature sizes above 3, where brute force would enumerate C(n, featureSize)
+ * combinations. Partial sets are extended one card at a time, and a card is only tried if it keeps every feature
+ * either all the same or all different (checked on all the feature lanes at once, see CardEncoding). Once
+ * featureSize - 1 cards are chosen the last card is fully determined, so it is computed and looked up instead of
+ * searched for.
+ */
+public class GeneralizedSetSolver implements SetSolver {
+
+    /**
+     * The bit-packed cards.
+     */
+    private final CardEncoding encoding;
+
+    /**
+     * The number of cards in a set.
+     */
+    private final int setSize;
+
+    public GeneralizedSetSolver(CardEncoding encoding) {
+        this.encoding = encoding;
+        setSize = encoding.setSize();
+    }
+
+    /**
+     * Checks if the solver can be used with the given configuration.
+     *
+     * @param config - the game configuration.
+     * @return - true iff sets have more than 3 cards and the cards can be bit-packed.
+     */
+    public static boolean supports(Config config) {
+        return config.featureSize > 3 && CardEncoding.supports(config);
+    }
+
+    /**
+     * Finds up to limit sets whose smallest card is cards[lead].
+     *
+     * @param cards   - the card ids to search in, sorted in ascending order and without duplicates.
+     * @param lead    - the index (in cards) of the smallest card of the sets to find.
+     * @param present - the same card ids as a bit set (for constant time membership tests).
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to, each one as a sorted array of card ids (null to only count them).
+     * @return - the number of sets found.
+     */
+    @Override
+    public int findSetsFrom(int[] cards, int lead, BitSet present, int limit, List<int[]> sets) {
+        int[] chosen = new int[setSize];
+        chosen[0] = cards[lead];
+        long bits = encoding.pack(cards[lead]);
+        return extend(cards, lead + 1, chosen, 1, bits, bits, present, limit, sets, false);
+    }
+
+    /**
+     * Finds up to limit sets made of the given card and some of the other cards.
+     *
+     * @param card    - the card id every set must include.
+     * @param others  - the other card ids, sorted in ascending order, without duplicates and without card.
+     * @param present - the other card ids as a bit set.
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to, each one as a sorted array of card ids (null to only count them).
+     * @return - the number of sets found.
+     */
+    @Override
+    public int findSetsContaining(int card, int[] others, BitSet present, int limit, List<int[]> sets) {
+        int[] chosen = new int[setSize];
+        chosen[0] = card;
+        long bits = encoding.pack(card);
+        return extend(others, 0, chosen, 1, bits, bits, present, limit, sets, true);
+    }
+
+    /**
+     * Extends a partial set of depth cards with the cards from index start onward.
+     *
+     * @return - the number of sets found.
+     */
+    private int extend(int[] cards, int start, int[] chosen, int depth, long common, long used,
+                       BitSet present, int limit, List<int[]> sets, boolean sort) {
+        if (depth == setSize - 1) {
+            int last = encoding.unpack(encoding.completeSet(common, used));
+            if (last <= chosen[depth - 1] || !present.get(last)) return 0;
+            if (sets != null) {
+                int[] set = chosen.clone();
+                set[depth] = last;
+                if (sort) Arrays.sort(set);
+                sets.add(set);
+            }
+            return 1;
+        }
+
+        // leave room for the cards still missing after this one (the last card is computed, not chosen)
+        int found = 0;
+        int end = cards.length - (setSize - 2 - depth);
+        for (int i = start; i < end && found < limit; ++i) {
+            long bits = encoding.pack(cards[i]);
+            if (depth > 1 && !encoding.extendsSet(common, used, bits)) continue;
+            chosen[depth] = cards[i];
+            found += extend(cards, i + 1, chosen, depth + 1, common & bits, used | bits, present, limit - found,
+                    sets, sort);
+        }
+        return found;
+    }
+}
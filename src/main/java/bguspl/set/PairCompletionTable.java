@@ -0,0 +1,138 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A lookup table of the card that completes each pair of cards into a legal set.
+ * Only applicable to the classic game (i.e. config.featureSize == 3), where any two cards decide the third one.
+ */
+public class PairCompletionTable implements SetSolver {
+
+    /**
+     * Decks up to this size get a fully precomputed table (deckSize ^ 2 ints), larger decks compute on demand.
+     */
+    private static final int MAX_PRECOMPUTED_DECK = 1024;
+
+    /**
+     * The number of features on the cards.
+     */
+    private final int featureCount;
+
+    /**
+     * The total number of cards in the deck.
+     */
+    private final int deckSize;
+
+    /**
+     * The features of every card.
+     */
+    private final FeatureMatrix features;
+
+    /**
+     * The third card of each pair, indexed by first * deckSize + second (null if not precomputed).
+     */
+    private final int[] completions;
+
+    public PairCompletionTable(Config config) {
+        if (!supports(config))
+            throw new IllegalArgumentException("pair completion requires a feature size of 3");
+        featureCount = config.featureCount;
+        deckSize = config.deckSize;
+        features = config.featureMatrix;
+
+        if (deckSize <= MAX_PRECOMPUTED_DECK) {
+            completions = new int[deckSize * deckSize];
+            for (int first = 0; first < deckSize; ++first)
+                for (int second = first; second < deckSize; ++second) {
+                    int third = computeCompletion(first, second);
+                    completions[first * deckSize + second] = third;
+                    completions[second * deckSize + first] = third;
+                }
+        } else completions = null;
+    }
+
+    /**
+     * Checks if the pair completion table can be used with the given configuration.
+     *
+     * @param config - the game configuration.
+     * @return - true iff sets are triplets of cards with 3 values per feature.
+     */
+    public static boolean supports(Config config) {
+        return config.featureSize == 3;
+    }
+
+    /**
+     * Returns the only card that forms a legal set together with the two given cards.
+     *
+     * @param first  - a card id.
+     * @param second - another card id.
+     * @return - the card id completing the set (equals first iff first == second).
+     */
+    public int complete(int first, int second) {
+        return completions != null ? completions[first * deckSize + second] : computeCompletion(first, second);
+    }
+
+    /**
+     * Finds up to limit sets whose smallest card is cards[lead].
+     *
+     * @param cards   - the card ids to search in, sorted in ascending order and without duplicates.
+     * @param lead    - the index (in cards) of the smallest card of the sets to find.
+     * @param present - the same card ids as a bit set (for constant time membership tests).
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to, each one as a sorted array of card ids (null to only count them).
+     * @return - the number of sets found.
+     */
+    @Override
+    public int findSetsFrom(int[] cards, int lead, BitSet present, int limit, List<int[]> sets) {
+        int found = 0;
+        int first = cards[lead];
+        for (int j = lead + 1; j < cards.length && found < limit; ++j) {
+            int second = cards[j];
+            int third = complete(first, second);
+            if (third > second && present.get(third)) {
+                if (sets != null) sets.add(new int[]{first, second, third});
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds up to limit sets made of the given card and two of the other cards.
+     *
+     * @param card    - the card id every set must include.
+     * @param others  - the other card ids, without duplicates and without card.
+     * @param present - the other card ids as a bit set.
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to, each one as a sorted array of card ids (null to only count them).
+     * @return - the number of sets found.
+     */
+    @Override
+    public int findSetsContaining(int card, int[] others, BitSet present, int limit, List<int[]> sets) {
+        int found = 0;
+        for (int i = 0; i < others.length && found < limit; ++i) {
+            int other = others[i];
+            int third = complete(card, other);
+            if (third > other && present.get(third)) {
+                if (sets != null) {
+                    int[] set = {card, other, third};
+                    Arrays.sort(set);
+                    sets.add(set);
+                }
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    private int computeCompletion(int first, int second) {
+        int third = 0;
+        for (int i = 0; i < featureCount; ++i) {
+            // in each feature the three values are either all the same or 0, 1 and 2 (i.e. they sum to 0 mod 3)
+            third = third * 3 + (6 - features.feature(first, i) - features.feature(second, i)) % 3;
+        }
+        return third;
+    }
+}
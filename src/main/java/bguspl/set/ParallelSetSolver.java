@@ -0,0 +1,129 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds sets on a fork/join pool. The combinations are partitioned by their leading (i.e. smallest) card, each task
+ * collects the sets of its range of leading cards into its own list, and the lists are concatenated on the way up.
+ */
+public class ParallelSetSolver implements SetSolver {
+
+    /**
+     * Ranges of up to this many leading cards are searched by a single task.
+     */
+    private static final int LEADS_PER_TASK = 4;
+
+    /**
+     * Searches the sets of a single leading card.
+     */
+    private final SetSolver solver;
+
+    /**
+     * The pool running the search tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * @param solver  - the solver that searches the sets of each leading card.
+     * @param threads - the number of threads to search with (0 for the common fork/join pool).
+     */
+    public ParallelSetSolver(SetSolver solver, int threads) {
+        this.solver = solver;
+        pool = threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public int findSetsFrom(int[] cards, int lead, BitSet present, int limit, List<int[]> sets) {
+        return solver.findSetsFrom(cards, lead, present, limit, sets);
+    }
+
+    @Override
+    public int findSetsContaining(int card, int[] others, BitSet present, int limit, List<int[]> sets) {
+        return solver.findSetsContaining(card, others, present, limit, sets);
+    }
+
+    /**
+     * Finds up to limit sets in the given cards, stopping all the tasks as soon as limit sets were found.
+     */
+    @Override
+    public int findSets(int[] cards, BitSet present, int limit, List<int[]> sets) {
+        if (pool.isShutdown()) return solver.findSets(cards, present, limit, sets);
+        Search search = new Search(cards, present, limit, sets != null);
+        List<int[]> found = pool.invoke(search.new Task(0, cards.length));
+        if (sets == null) return Math.min(search.found.get(), limit);
+        sets.addAll(found);
+        return found.size();
+    }
+
+    /**
+     * Shuts down the pool of the solver (the common fork/join pool is left running).
+     */
+    @Override
+    public void close() {
+        if (pool != ForkJoinPool.commonPool()) pool.shutdown();
+        solver.close();
+    }
+
+    /**
+     * The state shared by all the tasks of a single search.
+     */
+    private class Search {
+
+        final int[] cards;
+        final BitSet present;
+        final int limit;
+        final boolean collect;
+
+        /**
+         * The number of sets found so far by all the tasks (for early cancellation).
+         */
+        final AtomicInteger found = new AtomicInteger();
+
+        Search(int[] cards, BitSet present, int limit, boolean collect) {
+            this.cards = cards;
+            this.present = present;
+            this.limit = limit;
+            this.collect = collect;
+        }
+
+        /**
+         * Finds the sets whose leading card is in cards[from..to) (only counting them unless collect is set).
+         */
+        class Task extends RecursiveTask<List<int[]>> {
+
+            private static final long serialVersionUID = 1L;
+
+            final int from, to;
+
+            Task(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected List<int[]> compute() {
+                if (to - from <= LEADS_PER_TASK) {
+                    List<int[]> sets = new ArrayList<>();
+                    for (int lead = from; lead < to && found.get() < limit; ++lead)
+                        found.addAndGet(solver.findSetsFrom(cards, lead, present, limit - found.get(),
+                                collect ? sets : null));
+                    return sets;
+                }
+
+                int middle = (from + to) >>> 1;
+                Task right = new Task(middle, to);
+                right.fork();
+                List<int[]> sets = new Task(from, middle).compute();
+                List<int[]> rightSets = right.join();
+                if (sets.size() < limit)
+                    sets.addAll(rightSets.subList(0, Math.min(rightSets.size(), limit - sets.size())));
+                return sets;
+            }
+        }
+    }
+}
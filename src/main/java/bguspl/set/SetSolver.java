@@ -0,0 +1,61 @@
+package bguspl.set;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An algorithm for finding sets, used by UtilImpl behind the Util set queries.
+ * Solvers are created by a SetSolverProvider, and the one in use is chosen with the SetSolver configuration option.
+ * All the methods take the cards to search in sorted in ascending order and without duplicates, together with the
+ * same cards as a bit set, and add the sets they find to the given list as sorted arrays of card ids (or only count
+ * them if the list is null).
+ */
+public interface SetSolver extends AutoCloseable {
+
+    /**
+     * Finds up to limit sets whose smallest card is cards[lead].
+     *
+     * @param cards   - the card ids to search in.
+     * @param lead    - the index (in cards) of the smallest card of the sets to find.
+     * @param present - the card ids as a bit set.
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to (null to only count them).
+     * @return - the number of sets found.
+     */
+    int findSetsFrom(int[] cards, int lead, BitSet present, int limit, List<int[]> sets);
+
+    /**
+     * Finds up to limit sets made of the given card and some of the other cards.
+     *
+     * @param card    - the card id every set must include.
+     * @param others  - the other card ids (not including card).
+     * @param present - the other card ids as a bit set.
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to (null to only count them).
+     * @return - the number of sets found.
+     */
+    int findSetsContaining(int card, int[] others, BitSet present, int limit, List<int[]> sets);
+
+    /**
+     * Finds up to limit sets in the given cards.
+     *
+     * @param cards   - the card ids to search in.
+     * @param present - the card ids as a bit set.
+     * @param limit   - the maximum number of sets to find.
+     * @param sets    - the list to add the sets to (null to only count them).
+     * @return - the number of sets found.
+     */
+    default int findSets(int[] cards, BitSet present, int limit, List<int[]> sets) {
+        int found = 0;
+        for (int lead = 0; lead < cards.length && found < limit; ++lead)
+            found += findSetsFrom(cards, lead, present, limit - found, sets);
+        return found;
+    }
+
+    /**
+     * Releases the threads of the solver (if any). The solver keeps answering queries on the calling thread.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,30 @@
+package bguspl.set;
+
+/**
+ * Creates set solvers. Providers are loaded with java.util.ServiceLoader, so additional solvers can be plugged in by
+ * listing their provider in META-INF/services/bguspl.set.SetSolverProvider.
+ */
+public interface SetSolverProvider {
+
+    /**
+     * @return - the name used for choosing this solver in the SetSolver configuration option.
+     */
+    String name();
+
+    /**
+     * Checks if the solver can be used with the given configuration.
+     *
+     * @param config - the game configuration.
+     * @return - true iff the solver supports the configured feature size and count.
+     */
+    boolean supports(Config config);
+
+    /**
+     * Creates a solver.
+     *
+     * @param config - the game configuration (supported by this provider).
+     * @param util   - the util the solver is created for (e.g. for testing sets).
+     * @return - the new solver.
+     */
+    SetSolver create(Config config, Util util);
+}
@@ -0,0 +1,161 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The built-in set solver providers, and static methods for choosing among all the available providers.
+ */
+public final class SetSolvers {
+
+    private SetSolvers() {
+    }
+
+    /**
+     * Tests every combination of cards (see BruteForceSetSolver).
+     */
+    public static class BruteForce implements SetSolverProvider {
+
+        @Override
+        public String name() {
+            return "brute";
+        }
+
+        @Override
+        public boolean supports(Config config) {
+            return true;
+        }
+
+        @Override
+        public SetSolver create(Config config, Util util) {
+            return new BruteForceSetSolver(config, util);
+        }
+    }
+
+    /**
+     * Looks up the card completing each pair (see PairCompletionTable).
+     */
+    public static class Pairs implements SetSolverProvider {
+
+        @Override
+        public String name() {
+            return "pairs";
+        }
+
+        @Override
+        public boolean supports(Config config) {
+            return PairCompletionTable.supports(config);
+        }
+
+        @Override
+        public SetSolver create(Config config, Util util) {
+            return new PairCompletionTable(config);
+        }
+    }
+
+    /**
+     * Extends partial sets feature lane by feature lane (see GeneralizedSetSolver).
+     */
+    public static class Generalized implements SetSolverProvider {
+
+        @Override
+        public String name() {
+            return "general";
+        }
+
+        @Override
+        public boolean supports(Config config) {
+            return GeneralizedSetSolver.supports(config);
+        }
+
+        @Override
+        public SetSolver create(Config config, Util util) {
+            return new GeneralizedSetSolver(new CardEncoding(config));
+        }
+    }
+
+    /**
+     * Runs the fastest sequential solver on a fork/join pool (see ParallelSetSolver).
+     */
+    public static class Parallel implements SetSolverProvider {
+
+        @Override
+        public String name() {
+            return "parallel";
+        }
+
+        @Override
+        public boolean supports(Config config) {
+            return true;
+        }
+
+        @Override
+        public SetSolver create(Config config, Util util) {
+            return new ParallelSetSolver(sequential(config, util), config.searchThreads);
+        }
+    }
+
+    /**
+     * Picks a solver per call according to the number of cards, calibrating on the first calls (see AutoSetSolver).
+     */
+    public static class Auto implements SetSolverProvider {
+
+        @Override
+        public String name() {
+            return "auto";
+        }
+
+        @Override
+        public boolean supports(Config config) {
+            return true;
+        }
+
+        @Override
+        public SetSolver create(Config config, Util util) {
+            return new AutoSetSolver(config, util);
+        }
+    }
+
+    /**
+     * Creates the solver chosen in the configuration.
+     *
+     * @param config - the game configuration.
+     * @param util   - the util the solver is created for.
+     * @return - the new solver.
+     * @throws IllegalArgumentException - if no available provider has the configured name and supports the config.
+     */
+    public static SetSolver create(Config config, Util util) {
+        for (SetSolverProvider provider : ServiceLoader.load(SetSolverProvider.class))
+            if (provider.name().equals(config.setSolver) && provider.supports(config))
+                return provider.create(config, util);
+        throw new IllegalArgumentException("no set solver named " + config.setSolver + " supports "
+                + config.featureCount + " features of size " + config.featureSize);
+    }
+
+    /**
+     * Returns the providers of all the available solvers that support the given configuration.
+     *
+     * @param config - the game configuration.
+     */
+    public static List<SetSolverProvider> providers(Config config) {
+        List<SetSolverProvider> providers = new ArrayList<>();
+        for (SetSolverProvider provider : ServiceLoader.load(SetSolverProvider.class))
+            if (provider.supports(config))
+                providers.add(provider);
+        return providers;
+    }
+
+    /**
+     * Creates the fastest built-in single-threaded solver for the given configuration.
+     *
+     * @param config - the game configuration.
+     * @param util   - the util the solver is created for.
+     * @return - the new solver.
+     */
+    public static SetSolver sequential(Config config, Util util) {
+        if (PairCompletionTable.supports(config)) return new PairCompletionTable(config);
+        if (GeneralizedSetSolver.supports(config)) return new GeneralizedSetSolver(new CardEncoding(config));
+        return new BruteForceSetSolver(config, util);
+    }
+}
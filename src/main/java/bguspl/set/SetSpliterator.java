@@ -0,0 +1,75 @@
+package bguspl.set;
+
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazily enumerates the sets in a collection of cards. The sets are found one leading (i.e. smallest) card at a time,
+ * only when the previous ones were consumed, and splitting divides the range of leading cards.
+ */
+class SetSpliterator implements Spliterator<int[]> {
+
+    /**
+     * Searches the sets of a single leading card.
+     */
+    private final SetSolver solver;
+
+    /**
+     * The card ids to search in, sorted in ascending order and without duplicates.
+     */
+    private final int[] cards;
+
+    /**
+     * The cards as a bit set.
+     */
+    private final BitSet present;
+
+    /**
+     * The range of leading cards (indices in cards) not searched yet.
+     */
+    private int from;
+    private final int to;
+
+    /**
+     * The sets found for the last leading card and not consumed yet.
+     */
+    private final LinkedList<int[]> pending = new LinkedList<>();
+
+    SetSpliterator(SetSolver solver, int[] cards, BitSet present, int from, int to) {
+        this.solver = solver;
+        this.cards = cards;
+        this.present = present;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+        while (pending.isEmpty() && from < to)
+            solver.findSetsFrom(cards, from++, present, Integer.MAX_VALUE, pending);
+        if (pending.isEmpty()) return false;
+        action.accept(pending.poll());
+        return true;
+    }
+
+    @Override
+    public Spliterator<int[]> trySplit() {
+        int middle = (from + to) >>> 1;
+        if (!pending.isEmpty() || middle <= from) return null;
+        Spliterator<int[]> prefix = new SetSpliterator(solver, cards, present, from, middle);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from > 0 || !pending.isEmpty() ? Long.MAX_VALUE : 0;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+}
@@ -1,11 +1,19 @@
 package bguspl.set;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An interface for general utilities provided for convenience.
  */
-public interface Util {
+public interface Util extends AutoCloseable {
 
     /**
      * Converts a card id to an array of features (of config.featureCount values between 0 and config.featuresSize - 1)
@@ -23,6 +31,31 @@ public interface Util {
      */
     int[][] cardsToFeatures(int[] cards);
 
+    /**
+     * Returns a single feature of a card, without allocating (see cardToFeatures).
+     *
+     * @param card    - the card id.
+     * @param feature - the feature index (between 0 and config.featureCount - 1).
+     * @return - the feature value (between 0 and config.featureSize - 1).
+     */
+    default int feature(int card, int feature) {
+        return cardToFeatures(card)[feature];
+    }
+
+    /**
+     * Returns a read-only view of the features of a card (see cardToFeatures).
+     *
+     * @param card - the card id.
+     * @return - a buffer of config.featureCount bytes, one per feature.
+     */
+    default ByteBuffer featureView(int card) {
+        int[] features = cardToFeatures(card);
+        ByteBuffer view = ByteBuffer.allocate(features.length);
+        for (int feature : features) view.put((byte) feature);
+        view.flip();
+        return view.asReadOnlyBuffer();
+    }
+
     /**
      * Checks if an array of cards forms a legal set.
      *
@@ -40,8 +73,117 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Finds and returns up to count sets in the given array of cards (see findSets).
+     *
+     * @param cards - an array of card ids.
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    default List<int[]> findSets(int[] cards, int count) {
+        return findSets(Arrays.stream(cards).boxed().collect(Collectors.toList()), count);
+    }
+
+    /**
+     * Finds and returns up to count sets in the given set of cards (see findSets).
+     *
+     * @param cards - a bit set of card ids.
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    default List<int[]> findSets(BitSet cards, int count) {
+        return findSets(cards.stream().toArray(), count);
+    }
+
+    /**
+     * Lazily enumerates the sets in the given array of cards, so callers can stop early or split the work.
+     *
+     * @param cards - an array of card ids.
+     * @return - a spliterator over the legal sets, each one a sorted array of card ids.
+     */
+    default Spliterator<int[]> setSpliterator(int[] cards) {
+        return findSets(cards, Integer.MAX_VALUE).spliterator();
+    }
+
+    /**
+     * Lazily enumerates the sets in the given array of cards (see setSpliterator).
+     *
+     * @param cards - an array of card ids.
+     * @return - a sequential stream of the legal sets (call parallel() to search on several threads).
+     */
+    default Stream<int[]> streamSets(int[] cards) {
+        return StreamSupport.stream(setSpliterator(cards), false);
+    }
+
+    /**
+     * Counts the sets in the given array of cards.
+     *
+     * @param cards - an array of card ids.
+     * @return - the number of legal sets.
+     */
+    default int countSets(int[] cards) {
+        return findSets(cards, Integer.MAX_VALUE).size();
+    }
+
+    /**
+     * Checks if there is a set in the given array of cards.
+     *
+     * @param cards - an array of card ids.
+     * @return - true iff the cards contain at least one legal set.
+     */
+    default boolean hasSet(int[] cards) {
+        return !findSets(cards, 1).isEmpty();
+    }
+
+    /**
+     * Finds and returns up to count sets in the given collection of cards that include the given card.
+     *
+     * @param card  - the card id every set must include (it does not have to be in the collection).
+     * @param cards - a collection of cards (may not include null objects).
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    default List<int[]> findSetsContaining(int card, List<Integer> cards, int count) {
+        List<Integer> deck = new ArrayList<>(cards);
+        if (!deck.contains(card)) deck.add(card);
+        return findSets(deck, Integer.MAX_VALUE).stream()
+                .filter(set -> Arrays.stream(set).anyMatch(c -> c == card))
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds and returns up to count sets in the given array of cards that include the given card.
+     *
+     * @param card  - the card id every set must include (it does not have to be in the array).
+     * @param cards - an array of card ids.
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    default List<int[]> findSetsContaining(int card, int[] cards, int count) {
+        return findSetsContaining(card, Arrays.stream(cards).boxed().collect(Collectors.toList()), count);
+    }
+
+    /**
+     * Counts the sets in the given array of cards that include the given card.
+     *
+     * @param card  - the card id every set must include (it does not have to be in the array).
+     * @param cards - an array of card ids.
+     * @return - the number of legal sets including the card.
+     */
+    default int countSetsContaining(int card, int[] cards) {
+        return findSetsContaining(card, cards, Integer.MAX_VALUE).size();
+    }
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
     void spin();
+
+    /**
+     * Releases the threads used for finding sets (if any). Set queries still work afterwards, on the calling thread.
+     */
+    @Override
+    default void close() {
+    }
 }
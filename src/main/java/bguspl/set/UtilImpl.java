@@ -1,10 +1,14 @@
 package bguspl.set;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The implementation of the UserInterface interface.
@@ -13,48 +17,67 @@ public class UtilImpl implements Util {
 
     private final Config config;
 
+    /**
+     * The bit-packed cards (null if the features do not fit in a long).
+     */
+    private final CardEncoding encoding;
+
+    /**
+     * The algorithm used for finding sets (chosen in the configuration).
+     */
+    private final SetSolver solver;
+
     public UtilImpl(Config config) {
         this.config = config;
-    }
-
-    private void cardToFeatures(int card, int[] features) {
-        for (int i = config.featureCount - 1; i >= 0; --i) {
-            features[i] = card % config.featureSize;
-            card /= config.featureSize;
-        }
+        encoding = CardEncoding.supports(config) ? new CardEncoding(config) : null;
+        solver = SetSolvers.create(config, this);
     }
 
     @Override
     public int[] cardToFeatures(int card) {
         int[] features = new int[config.featureCount];
-        cardToFeatures(card, features);
+        config.featureMatrix.copyFeatures(card, features);
         return features;
     }
 
     @Override
     public int[][] cardsToFeatures(int[] cards) {
         int[][] features = new int[cards.length][config.featureCount];
-        IntStream.range(0, cards.length).forEach(i -> cardToFeatures(cards[i], features[i]));
+        for (int i = 0; i < cards.length; ++i)
+            config.featureMatrix.copyFeatures(cards[i], features[i]);
         return features;
     }
 
+    @Override
+    public int feature(int card, int feature) {
+        return config.featureMatrix.feature(card, feature);
+    }
+
+    @Override
+    public ByteBuffer featureView(int card) {
+        return config.featureMatrix.view(card);
+    }
+
     @Override
     public boolean testSet(int[] cards) {
-        int[][] features = cardsToFeatures(Arrays.copyOf(cards, cards.length));
+        if (encoding != null && cards.length == encoding.setSize())
+            return encoding.testSet(cards);
+
+        FeatureMatrix features = config.featureMatrix;
         for (int i = 0; i < config.featureCount; ++i) {
             boolean sameSame = true, butDifferent = true;
 
             // check if this features is sameSame in all cards
-            for (int j = 1; j < features.length; ++j)
-                if (features[0][i] != features[j][i]) {
+            for (int j = 1; j < cards.length; ++j)
+                if (features.feature(cards[0], i) != features.feature(cards[j], i)) {
                     sameSame = false;
                     break;
                 }
 
             // check if this feature is butDifferent in all cards
-            for (int j = 1; j < features.length; ++j)
-                for (int k = j; k < features.length; ++k)
-                    if (features[j - 1][i] == features[k][i]) {
+            for (int j = 1; j < cards.length; ++j)
+                for (int k = j; k < cards.length; ++k)
+                    if (features.feature(cards[j - 1], i) == features.feature(cards[k], i)) {
                         butDifferent = false;
                         break;
                     }
@@ -66,34 +89,100 @@ public class UtilImpl implements Util {
 
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
+        return findSets(deck.stream().mapToInt(Integer::intValue).toArray(), count);
+    }
+
+    @Override
+    public List<int[]> findSets(int[] cards, int count) {
+        return findSortedSets(sorted(cards), count);
+    }
+
+    @Override
+    public List<int[]> findSets(BitSet cards, int count) {
+        return findSortedSets(cards.stream().toArray(), count);
+    }
+
+    @Override
+    public Spliterator<int[]> setSpliterator(int[] cards) {
+        int[] sortedCards = sorted(cards);
+        return new SetSpliterator(solver, sortedCards, presence(sortedCards), 0, sortedCards.length);
+    }
+
+    @Override
+    public Stream<int[]> streamSets(int[] cards) {
+        return StreamSupport.stream(setSpliterator(cards), false);
+    }
+
+    @Override
+    public int countSets(int[] cards) {
+        return countSets(cards, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean hasSet(int[] cards) {
+        return countSets(cards, 1) > 0;
+    }
+
+    @Override
+    public List<int[]> findSetsContaining(int card, List<Integer> cards, int count) {
+        return findSetsContaining(card, cards.stream().mapToInt(Integer::intValue).toArray(), count);
+    }
+
+    @Override
+    public List<int[]> findSetsContaining(int card, int[] cards, int count) {
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
-        int r = config.featureSize;
-        int[] combination = new int[r];
-
-        for (int i = 0; i < r; ++i)
-            combination[i] = i;
-
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
-            if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
-            }
-
-            // generate next combination in lexicographic order
-            int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
-            combination[t]++;
-            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
-        }
+        findSetsContaining(card, cards, count, sets);
         return sets;
     }
 
+    @Override
+    public int countSetsContaining(int card, int[] cards) {
+        return findSetsContaining(card, cards, Integer.MAX_VALUE, null);
+    }
+
+    private List<int[]> findSortedSets(int[] cards, int count) {
+        LinkedList<int[]> sets = new LinkedList<>();
+        solver.findSets(cards, presence(cards), count, sets);
+        return sets;
+    }
+
+    private int countSets(int[] cards, int limit) {
+        int[] sortedCards = sorted(cards);
+        return solver.findSets(sortedCards, presence(sortedCards), limit, null);
+    }
+
+    private int findSetsContaining(int card, int[] cards, int limit, List<int[]> sets) {
+        int[] others = Arrays.stream(cards).filter(c -> c != card).sorted().distinct().toArray();
+        return solver.findSetsContaining(card, others, presence(others), limit, sets);
+    }
+
+    /**
+     * Returns a sorted copy of the given cards, without duplicates.
+     */
+    private static int[] sorted(int[] cards) {
+        return Arrays.stream(cards).sorted().distinct().toArray();
+    }
+
+    /**
+     * Returns the given cards as a bit set (for looking up completing cards).
+     *
+     * @param cards - the card ids.
+     */
+    private BitSet presence(int[] cards) {
+        BitSet present = new BitSet(config.deckSize);
+        for (int card : cards) present.set(card);
+        return present;
+    }
+
     public void spin() {
         if (config.randomSpinMax <= 0) return;
         long cycles = ThreadLocalRandom.current().nextLong(config.randomSpinMin, config.randomSpinMax);
         for (int i = 0; i < cycles; ++i)
             Thread.yield();
     }
+
+    @Override
+    public void close() {
+        solver.close();
+    }
 }
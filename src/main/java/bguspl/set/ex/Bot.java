@@ -0,0 +1,147 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The key press generator of a computer player, stepped by a BotScheduler.
+ * A bot presses a random slot every delayMillis while its player may act, as far as its rate limit and the
+ * scheduler's shared budget allow. Once the player waits for a verdict (or is frozen) the bot stops scheduling steps,
+ * and the player wakes it up when it may act again.
+ */
+class Bot {
+
+    /**
+     * The states of a bot.
+     */
+    enum State {
+        /**
+         * A step is scheduled.
+         */
+        PLAYING,
+        /**
+         * No step is scheduled until the player may act again.
+         */
+        WAITING,
+        /**
+         * The game is over for this bot.
+         */
+        STOPPED
+    }
+
+    /**
+     * The player the bot presses keys for.
+     */
+    protected final Player player;
+
+    /**
+     * The number of slots on the table.
+     */
+    protected final int slots;
+
+    /**
+     * The delay between two steps.
+     */
+    protected final long delayMillis;
+
+    /**
+     * Limits the key presses of the bot (null if unlimited).
+     */
+    private final TokenBucket limiter;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.WAITING);
+
+    /**
+     * The scheduler stepping the bot (null until started).
+     */
+    private volatile BotScheduler scheduler;
+
+    /**
+     * @param player      - the computer player.
+     * @param slots       - the number of slots on the table.
+     * @param delayMillis - the delay between two key presses.
+     * @param perSecond   - the maximal number of key presses per second (0 for unlimited).
+     */
+    Bot(Player player, int slots, long delayMillis, double perSecond) {
+        this.player = player;
+        this.slots = slots;
+        this.delayMillis = delayMillis;
+        limiter = perSecond > 0 ? new TokenBucket(perSecond) : null;
+    }
+
+    /**
+     * Called by the scheduler to start stepping the bot.
+     */
+    void start(BotScheduler scheduler) {
+        this.scheduler = scheduler;
+        wake();
+    }
+
+    /**
+     * Makes one key press (if the player may act) and schedules the next step.
+     */
+    void step() {
+        if (state.get() != State.PLAYING)
+            return;
+        if (!player.isWaiting()) {
+            long wait = think();
+            if (wait > 0) { // not ready to press yet
+                scheduler.schedule(this, wait);
+                return;
+            }
+            wait = scheduler.acquire(limiter);
+            if (wait > 0) { // out of permits: try again when one is available
+                scheduler.schedule(this, wait);
+                return;
+            }
+            player.keyPressed(nextSlot());
+        }
+        if (!player.isWaiting()) {
+            scheduler.schedule(this, delayMillis);
+            return;
+        }
+        state.compareAndSet(State.PLAYING, State.WAITING);
+        if (!player.isWaiting()) // the verdict came before the state changed
+            wake();
+    }
+
+    /**
+     * Decides whether the bot is ready to press a key.
+     *
+     * @return - 0 if the bot presses a key in this step, or else the number of milliseconds until it is ready.
+     */
+    protected long think() {
+        return 0;
+    }
+
+    /**
+     * Chooses the slot of the next key press.
+     *
+     * @return - the slot to press.
+     */
+    protected int nextSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    /**
+     * Resumes stepping a waiting bot (called when its player may act again).
+     */
+    void wake() {
+        if (scheduler != null && state.compareAndSet(State.WAITING, State.PLAYING))
+            scheduler.schedule(this, delayMillis);
+    }
+
+    /**
+     * Stops stepping the bot.
+     */
+    void stop() {
+        state.set(State.STOPPED);
+    }
+
+    /**
+     * @return - the current state of the bot.
+     */
+    State state() {
+        return state.get();
+    }
+}
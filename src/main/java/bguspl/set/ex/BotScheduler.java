@@ -0,0 +1,105 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the computer players on a small fixed pool of event loop threads.
+ * Every bot is a state machine that is stepped on a timer: a step makes at most one key press and schedules the next
+ * step, so the number of threads does not grow with the number of bots and no bot ever blocks a loop thread.
+ * Key presses can be limited per bot and by a budget shared by all the bots; a bot that is out of permits skips its
+ * step and is stepped again once a permit is available.
+ * The loops are always platform threads, even when the game runs on virtual threads: they never block (a bot waits
+ * on the timer, not on a thread), so there is nothing for virtual threads to save.
+ */
+class BotScheduler {
+
+    /**
+     * The event loop threads.
+     */
+    private final ScheduledThreadPoolExecutor loops;
+
+    /**
+     * The key presses per second shared by all the bots (null if unlimited).
+     */
+    private final TokenBucket budget;
+
+    /**
+     * The number of key presses the bots made.
+     */
+    private final AtomicLong issued = new AtomicLong();
+
+    /**
+     * @param threads         - the number of event loop threads.
+     * @param budgetPerSecond - the key presses per second shared by all the bots (0 for unlimited).
+     */
+    BotScheduler(int threads, double budgetPerSecond) {
+        budget = budgetPerSecond > 0 ? new TokenBucket(budgetPerSecond) : null;
+        AtomicInteger count = new AtomicInteger();
+        loops = new ScheduledThreadPoolExecutor(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "bots-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        loops.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts stepping a bot.
+     *
+     * @param bot - the bot to run.
+     */
+    void start(Bot bot) {
+        bot.start(this);
+    }
+
+    /**
+     * Runs the next step of a bot after a delay.
+     *
+     * @param bot         - the bot to step.
+     * @param delayMillis - the delay before the step.
+     */
+    void schedule(Bot bot, long delayMillis) {
+        try {
+            loops.schedule(bot::step, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) { // the game is over
+        }
+    }
+
+    /**
+     * Takes a permit for a key press from a bot's own limiter and from the shared budget.
+     *
+     * @param own - the limiter of the bot (null if unlimited).
+     * @return - 0 if the bot may press a key now, or else the number of milliseconds to wait.
+     */
+    long acquire(TokenBucket own) {
+        long wait = own != null ? own.tryAcquire() : 0;
+        if (wait > 0)
+            return wait;
+        wait = budget != null ? budget.tryAcquire() : 0;
+        if (wait > 0) {
+            if (own != null)
+                own.refund();
+            return wait;
+        }
+        issued.incrementAndGet();
+        return 0;
+    }
+
+    /**
+     * @return - the number of key presses the bots made so far.
+     */
+    long issuedActions() {
+        return issued.get();
+    }
+
+    /**
+     * Stops stepping all the bots.
+     */
+    void shutdown() {
+        loops.shutdownNow();
+    }
+}
@@ -0,0 +1,110 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A set a player submitted for the dealer to check.
+ * Claims are numbered in the order they were submitted, and the dealer judges them in that order, so when two
+ * claims share a slot the earlier one wins and the later one is released.
+ * A claim records the state of its slots when it was submitted. The cards are tested against that state without
+ * any lock, and committing only checks that the slots did not change since.
+ */
+class Claim {
+
+    /**
+     * The possible outcomes of a claim.
+     */
+    enum Verdict {
+        /**
+         * The cards form a legal set: the player gets a point.
+         */
+        POINT,
+        /**
+         * The cards do not form a legal set: the player gets a penalty.
+         */
+        PENALTY,
+        /**
+         * Some of the tokens were removed before the claim was checked: the player is released without a penalty.
+         */
+        RELEASED
+    }
+
+    /**
+     * The arrival order of the claim.
+     */
+    final long sequence;
+
+    /**
+     * The player who submitted the claim.
+     */
+    final Player player;
+
+    /**
+     * The slots the player placed tokens on.
+     */
+    final int[] slots;
+
+    /**
+     * The words (card and version) of the slots when the claim was submitted.
+     */
+    final long[] words;
+
+    /**
+     * True iff the cards in the recorded slot words form a legal set (set by verify).
+     */
+    boolean legal;
+
+    /**
+     * The verification of the claim by a worker thread (null if the dealer verifies it).
+     */
+    CompletableFuture<Void> verification;
+
+    /**
+     * The outcome of the claim (null until the dealer judged it).
+     */
+    Verdict verdict;
+
+    Claim(long sequence, Player player, int[] slots, long[] words) {
+        this.sequence = sequence;
+        this.player = player;
+        this.slots = slots;
+        this.words = words;
+    }
+
+    /**
+     * Tests the cards of the claim as they were when it was submitted. Does not read the table.
+     *
+     * @param util    - used for testing the cards.
+     * @param setSize - the number of cards in a set.
+     * @post - legal is set
+     */
+    void verify(Util util, int setSize) {
+        legal = false;
+        if (slots.length != setSize)
+            return;
+        int[] cards = new int[words.length];
+        for (int i = 0; i < words.length; ++i) {
+            cards[i] = Table.card(words[i]);
+            if (cards[i] == Table.NO_CARD)
+                return;
+        }
+        legal = util.testSet(cards);
+    }
+
+    /**
+     * Checks that none of the slots changed since the claim was submitted, and that the
+     * player still has all the tokens of the claim.
+     *
+     * @param table - the table to check against.
+     * @return - true iff the verification of the claim still holds.
+     * @pre - the caller holds the table lock
+     */
+    boolean isCurrent(Table table) {
+        for (int i = 0; i < slots.length; ++i)
+            if (table.slotWord(slots[i]) != words[i] || !table.hasToken(player.id, slots[i]))
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies the cards of submitted claims.
+ * With worker threads, a claim starts being verified as soon as it is submitted, concurrently with other claims and
+ * with the dealer; the dealer then only waits for the verification of each claim it commits. Without worker threads,
+ * claims are verified by the dealer when it commits them.
+ * The workers are always platform threads, even when the game runs on virtual threads: verifying is short CPU-bound
+ * work that never blocks, and the pool is small and fixed.
+ */
+class ClaimVerifier {
+
+    /**
+     * Used for testing the cards.
+     */
+    private final Util util;
+
+    /**
+     * The number of cards in a set.
+     */
+    private final int setSize;
+
+    /**
+     * The worker threads (null if claims are verified by the dealer).
+     */
+    private final ExecutorService workers;
+
+    /**
+     * @param util    - used for testing the cards.
+     * @param setSize - the number of cards in a set.
+     * @param threads - the number of worker threads (0 to verify claims on the dealer thread).
+     */
+    ClaimVerifier(Util util, int setSize, int threads) {
+        this.util = util;
+        this.setSize = setSize;
+        if (threads <= 0)
+            workers = null;
+        else {
+            AtomicInteger count = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "verifier-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts verifying a new claim (if there are worker threads).
+     *
+     * @param claim - the submitted claim.
+     */
+    void submit(Claim claim) {
+        if (workers != null)
+            claim.verification = CompletableFuture.runAsync(() -> claim.verify(util, setSize), workers);
+    }
+
+    /**
+     * Waits until a claim is verified, verifying it on the calling thread if it was not submitted to a worker.
+     *
+     * @param claim - the claim to verify.
+     * @post - claim.legal is set
+     */
+    void await(Claim claim) {
+        if (claim.verification != null)
+            claim.verification.join();
+        else
+            claim.verify(util, setSize);
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    void shutdown() {
+        if (workers != null)
+            workers.shutdownNow();
+    }
+}
@@ -2,16 +2,16 @@ package bguspl.set.ex;
 
 import bguspl.set.Env;
 
-import java.util.Random;
-
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 import java.util.logging.Level;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * This class manages the dealer's threads and data
@@ -31,9 +31,9 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck.
      */
-    private final List<Integer> deck;
+    private final Deck deck;
 
     /**
      * Check if there are remaining sets in deck (after we remove all the cards from
@@ -42,6 +42,11 @@ public class Dealer implements Runnable {
      */
     private boolean remainingSet;
 
+    /**
+     * The number of sets that can still be formed from the deck and the table together.
+     */
+    private final RemainingSets remainingSets;
+
     /**
      * True iff game should be terminated due to an external event.
      */
@@ -52,22 +57,44 @@ public class Dealer implements Runnable {
      */
     private long reshuffleTime = Long.MAX_VALUE;
 
+    /**
+     * Parks the dealer until a player submits a set or the next deadline passes.
+     */
+    private final DealerScheduler scheduler;
+
+    /**
+     * Verifies the cards of the submitted sets.
+     */
+    private final ClaimVerifier verifier;
+
+    /**
+     * Steps the computer players' key presses.
+     */
+    private final BotScheduler bots;
+
     private Thread dealerThread;
     private boolean under5; // if the timer is in the warning time
-    protected Queue<Player> playersToCheck; // the plaayers that waiting for the dealer to check their sets/
-    final private int DEALER_SLEEP_TIME;
-    final private int DEALER_SLEEP_TIME_WARNINGTIME;
+    protected BlockingQueue<Claim> playersToCheck; // the claims waiting for the dealer to check them
+    private final AtomicLong claimSequence; // numbers the claims in arrival order
+    private final AtomicIntegerArray pendingClaims; // 1 for each player with a claim in playersToCheck
+    final private int DEALER_SLEEP_TIME_WARNINGTIME; // the countdown display tick in the warning time
     final private int ONE_SECOND;
 
     public Dealer(Env env, Table table, Player[] players) {
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        deck = new Deck(env.config.deckSize,
+                env.config.randomSeed != 0 ? new Random(env.config.randomSeed) : new Random());
         under5 = false;
-        playersToCheck = new ConcurrentLinkedDeque<Player>();
+        playersToCheck = new ArrayBlockingQueue<>(Math.max(1, players.length));
+        claimSequence = new AtomicLong();
+        pendingClaims = new AtomicIntegerArray(players.length);
         remainingSet = true;
-        DEALER_SLEEP_TIME = 100;
+        remainingSets = new RemainingSets(env.util);
+        scheduler = new DealerScheduler();
+        bots = new BotScheduler(env.config.botThreads, env.config.botActionBudget);
+        verifier = new ClaimVerifier(env.util, env.config.featureSize, env.config.verifierThreads);
         DEALER_SLEEP_TIME_WARNINGTIME = 5;
         ONE_SECOND = 1000;
     }
@@ -84,8 +111,11 @@ public class Dealer implements Runnable {
             player.getplayerThread().start();
 
         }
+        remainingSets.reset(deck.toArray());
+        remainingSet = remainingSets.hasSet();
         while (!shouldFinish()) {
             placeCardsOnTable();
+            table.flushDisplay(); // the countdown starts once the new cards are shown
             reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis;
             timerLoop();
             updateTimerDisplay(false);
@@ -96,6 +126,10 @@ public class Dealer implements Runnable {
             terminate = true;
 
         }
+        verifier.shutdown();
+        bots.shutdown();
+        env.util.close();
+        env.logger.info("computer players issued " + bots.issuedActions() + " key presses.");
         env.logger.info("Thread " + Thread.currentThread().getName() + " terminated.");
     }
 
@@ -120,15 +154,13 @@ public class Dealer implements Runnable {
         for (Player p : players) {
 
             p.terminate();
-            synchronized (p) {
-                p.notifyAll();
-            }
             try {
                 p.getplayerThread().join(); // waiting for all the players to finish.
             } catch (InterruptedException e) {
             }
         }
         terminate = true;
+        scheduler.signal();
     }
 
     /**
@@ -141,70 +173,92 @@ public class Dealer implements Runnable {
     }
 
     /**
-     * Checks if any player waiting to be checked and then check all the parametrers
-     * in the forward functions.
+     * Judges all the claims submitted since the last check, in arrival order, and
+     * then hands the verdicts to the players. The cards are tested with no lock
+     * held (by the verifier workers, if any, as soon as each claim arrives); the
+     * table lock is taken once, only to check that the claimed slots did not
+     * change and to commit the sets that scored.
      */
+    void removeCardsFromTable() {
+        List<Claim> batch = new ArrayList<>(playersToCheck.size());
+        playersToCheck.drainTo(batch);
+        if (batch.isEmpty())
+            return;
+        batch.sort(Comparator.comparingLong(claim -> claim.sequence)); // claims may be queued slightly out of order
 
-    private void removeCardsFromTable() {
-        if (!playersToCheck.isEmpty()) {
-            // env.logger.log(Level.INFO, "how much before loop" + playersToCheck.size());
-            for (Player p : playersToCheck) {
-                synchronized (p) {
-                    Player myPlayer = (Player) playersToCheck.poll();
-                    // env.logger.log(Level.INFO, "Thread " + myPlayer.id + " checked now");
-                    BlockingQueue<Integer> myPlayerTokens = myPlayer.getActions();
-                    // env.logger.log(Level.INFO, "Thread " + myPlayer.id + "size of copy" +
-                    // myPlayerTokens.size());
-                    isLegalSet(myPlayer, myPlayerTokens);
-                }
-            }
+        for (Claim claim : batch)
+            verifier.await(claim);
+
+        table.lock().lock();
+        try {
+            for (Claim claim : batch)
+                judge(claim);
+            remainingSet = remainingSets.hasSet(); // the game ends as soon as no set can be formed anymore
+        } finally {
+            table.lock().unlock();
         }
 
+        for (Claim claim : batch)
+            deliver(claim);
+    }
+
+    /**
+     * Decides the verdict of a verified claim and commits it to the table if it is a set.
+     * A claim whose slots changed since it was submitted (e.g. they were taken by an
+     * earlier claim of the same batch), or that lost some of its tokens, is released.
+     *
+     * @param claim - the claim to judge.
+     * @pre - the caller holds the table lock
+     */
+    private void judge(Claim claim) {
+        if (claim.slots.length != env.config.featureSize || !claim.isCurrent(table))
+            claim.verdict = Claim.Verdict.RELEASED;
+        else if (claim.legal) {
+            removeCardsFromTable(claim.slots, claim.player);
+            claim.verdict = Claim.Verdict.POINT;
+        } else
+            claim.verdict = Claim.Verdict.PENALTY;
     }
 
     /**
      * if player have a set this funcion remove the tokens and the caards from the
      * slot and placing other card if it possible
      * the player that found the set get a point
-     * this func is calles from isLegal
+     * this func is called from judge (under the table lock)
      */
-    private void removeCardsFromTable(BlockingQueue<Integer> slots, Player player) {
-        env.ui.setScore(player.id, (player.setAndGetScore()));
-        synchronized (table) {
-            for (Integer s : slots) {
-
-                table.removeCard(s.intValue());
+    private void removeCardsFromTable(int[] slots, Player player) {
+        player.setAndGetScore();
+        for (int s : slots) {
+
+            int card = table.cardAt(s);
+            if (card != Table.NO_CARD)
+                remainingSets.remove(card);
+            table.forEachPlayerOn(s, id -> { // only the players with a token on the slot
+                if (id != player.id)
+                    players[id].setActions(s);
+            });
+            table.removeCard(s);
+            if (!deck.isEmpty())
+                table.placeCard(deck.draw(), s);
 
-                for (Player p : players) {
-
-                    if (p.getActions().contains(s) && !p.equals(player)) {
-                        p.setActions(s);
-                    }
-
-                }
-                Random rnd = new Random();
-                int cardsInDeck = deck.size();
-                if (cardsInDeck != 0) {
-                    int cardToPlace = deck.get(rnd.nextInt((cardsInDeck)));
-                    table.placeCard(cardToPlace, s);
-                    deck.remove((Object) cardToPlace);
-                }
-
-            }
-            // env.logger.log(Level.INFO, "dealer release table key after point");
-        }
-
-        player.setGetPoint();
-        player.setToCheck();
-        player.notifyAll();
-        if (!player.getIsHuman()) {
-            player.getAiThread().interrupt();
         }
 
         reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis;
 
     }
 
+    /**
+     * Hands the verdict of a judged claim to its player and lets the player submit
+     * claims again.
+     */
+    private void deliver(Claim claim) {
+        Player player = claim.player;
+        if (claim.verdict == Claim.Verdict.POINT)
+            env.ui.setScore(player.id, player.getScore());
+        pendingClaims.set(player.id, 0);
+        player.receive(claim.verdict);
+    }
+
     /**
      * Check if any cards can be removed from the deck and placed on the table.
      */
@@ -216,39 +270,46 @@ public class Dealer implements Runnable {
      *       else----->table.countCards==@pre(deck.size)
      */
     protected void placeCardsOnTable() {
-        synchronized (table) {
+        table.lock().lock();
+        try {
             if (table.countCards() == 0) {
-                Random rnd = new Random();
-                for (int i = 0; i < table.slotToCard.length && deck.size() > 0; i++) {
-                    int cardsInDeck = deck.size();
-                    if (table.slotToCard[i] == null) {
-                        int cardToPlace = deck.get(rnd.nextInt((cardsInDeck)));
-                        table.placeCard(cardToPlace, i);
-                        deck.remove((Object) cardToPlace);
-                    }
-
+                for (int i = 0; i < env.config.tableSize && !deck.isEmpty(); i++) {
+                    if (table.cardAt(i) == Table.NO_CARD)
+                        table.placeCard(deck.draw(), i);
                 }
             }
+        } finally {
+            table.lock().unlock();
         }
         // env.logger.log(Level.INFO, "dealer release table key after
         // placeCardsOnTable");
     }
 
     /**
-     * Sleep for a fixed amount of time or until the thread is awakened for some
-     * purpose.
+     * Sleep until a player submits a set, the countdown display needs to change or
+     * the reshuffle time comes, whichever is first.
      */
     private void sleepUntilWokenOrTimeout() {
-        try {
-            if (!under5) {
-                Thread.sleep(DEALER_SLEEP_TIME);
-            } else {
+        scheduler.awaitUntil(Math.min(reshuffleTime, nextDisplayTick()));
+    }
 
-                Thread.sleep(DEALER_SLEEP_TIME_WARNINGTIME);
-            }
-        } catch (InterruptedException e) {
+    /**
+     * @return - the time when the countdown display shows a different value: the
+     *         next whole second, or the next warning tick in the warning time.
+     */
+    private long nextDisplayTick() {
+        long now = System.currentTimeMillis();
+        if (under5)
+            return now + DEALER_SLEEP_TIME_WARNINGTIME;
+        long untilNextSecond = (reshuffleTime - now) % ONE_SECOND;
+        return now + (untilNextSecond > 0 ? untilNextSecond : ONE_SECOND);
+    }
 
-        }
+    /**
+     * Wakes up the dealer thread to check the submitted sets.
+     */
+    public void wakeUp() {
+        scheduler.signal();
     }
 
     /**
@@ -257,10 +318,9 @@ public class Dealer implements Runnable {
     private void updateTimerDisplay(boolean reset) {
 
         long d = reshuffleTime - System.currentTimeMillis() + ONE_SECOND - 1;
-        if (d <= env.config.turnTimeoutWarningMillis) {
-            under5 = true;
+        under5 = d <= env.config.turnTimeoutWarningMillis; // a new countdown leaves the warning time
+        if (under5)
             reset = true;
-        }
 
         if (d >= ONE_SECOND)
             env.ui.setCountdown(d, reset);
@@ -276,21 +336,25 @@ public class Dealer implements Runnable {
      * Returns all the cards from the table to the deck.
      */
     private void removeAllCardsFromTable() {
-        synchronized (table) {
+        table.lock().lock();
+        try {
             for (int i = 0; i < env.config.tableSize; i++) {
-                if (table.slotToCard[i] != null) {
-                    deck.add(table.slotToCard[i]);
+                int card = table.cardAt(i);
+                if (card != Table.NO_CARD) {
+                    deck.add(card);
                     table.removeCard(i);
                 }
             }
-            remainingSet = !(env.util.findSets(deck, 1).size() == 0); // checks if there are remaining set in the deck.
-                                                                      // if not - the geme is terminate.
+            remainingSet = remainingSets.hasSet(); // checks if there are remaining set in the deck.
+                                                   // if not - the geme is terminate.
 
             // env.logger.log(Level.INFO, "is there more sets" + remainingSet + "deck size"
             // + deck.size());
             for (Player p : players) {
                 p.removeAllTokens();
             }
+        } finally {
+            table.lock().unlock();
         }
         // env.logger.log(Level.INFO, "dealer release table key after remove all card
         // from table");
@@ -324,13 +388,11 @@ public class Dealer implements Runnable {
                 i++;
             }
         }
+        table.flushDisplay();
         env.ui.announceWinner(winners);
         for (Player p : players) {
 
             p.terminate();
-            synchronized (p) {
-                p.notifyAll();
-            }
             try {
                 p.getplayerThread().join();
             } catch (InterruptedException e) {
@@ -342,56 +404,10 @@ public class Dealer implements Runnable {
     }
 
     /**
-     * check if the 3 cards is a set (in a fair way)
+     * @return - the scheduler running the computer players.
      */
-    public void isLegalSet(Player player, BlockingQueue<Integer> list) {
-        if (player.getTokens() < env.config.featureSize) { // if some of my token was removed before the dealer checked
-                                                           // me
-            player.setToCheck();
-            player.notifyAll();
-            if (!player.getIsHuman()) {
-                player.getAiThread().interrupt();
-            }
-        } else {
-            synchronized (table) {
-                if (player.getTokens() == env.config.featureSize) {
-                    // building the arry of cards that need to be checked
-                    int[] cards = new int[env.config.featureSize];
-                    int i = 0;
-                    int capacity = 0;
-                    for (Integer s : list) {
-                        if ((table.slotToCard[s]) != null) {
-                            cards[i] = (table.slotToCard[s]).intValue();
-                            i++;
-                            capacity++;
-                        }
-                    }
-                    //
-                    if (capacity == env.config.featureSize) { // double check that all the token remains
-                        boolean ans = env.util.testSet(cards);
-                        if (ans) { // point
-                            removeCardsFromTable(list, player);
-                        } else { // penalty
-                            player.setInPenalty();
-                            player.setToCheck();
-                            player.notifyAll();
-                            if (!player.getIsHuman()) {
-                                player.getAiThread().interrupt();
-                            }
-                        }
-                    } else { // if capacity<3 release the player without any penalty
-                        player.setToCheck();
-                        player.notifyAll();
-                        if (!player.getIsHuman()) {
-                            player.getAiThread().interrupt();
-                        }
-
-                    }
-                }
-            }
-        }
-        // env.logger.log(Level.INFO, "dealer release table key after islegal func");
-
+    BotScheduler getBotScheduler() {
+        return bots;
     }
 
     public Thread getDealerThread() {
@@ -406,10 +422,14 @@ public class Dealer implements Runnable {
      */
 
     public void setPlayersToCheck(Player player) {
-        if (!playersToCheck.contains(player)) {
-            playersToCheck.add(player);
-            // env.logger.log(Level.INFO, "how much players to check " +
-            // playersToCheck.size());
+        if (pendingClaims.compareAndSet(player.id, 0, 1)) { // at most one pending claim per player
+            int[] slots = table.tokensOf(player.id);
+            long[] words = new long[slots.length];
+            for (int i = 0; i < slots.length; i++)
+                words[i] = table.slotWord(slots[i]);
+            Claim claim = new Claim(claimSequence.incrementAndGet(), player, slots, words);
+            verifier.submit(claim);
+            playersToCheck.add(claim);
         }
 
     }
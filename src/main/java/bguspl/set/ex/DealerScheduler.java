@@ -0,0 +1,64 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Parks the dealer thread until it has something to do: either another thread signals an event (e.g. a player
+ * submitted a set to check) or a deadline passes (e.g. the next countdown display tick or the reshuffle time).
+ * Signals that arrive while the dealer is busy are remembered, so the next call to awaitUntil returns immediately.
+ *
+ * @inv at most one signal is pending at any time
+ */
+class DealerScheduler {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition woken = lock.newCondition();
+
+    /**
+     * True iff an event was signalled and not consumed yet.
+     */
+    private boolean signalled;
+
+    /**
+     * Wakes up the dealer (or makes its next wait return immediately).
+     */
+    void signal() {
+        lock.lock();
+        try {
+            signalled = true;
+            woken.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Parks the calling thread until an event is signalled or the deadline passes, whichever comes first.
+     * An interrupt also ends the wait.
+     *
+     * @param deadline - the wall-clock time (in milliseconds) to wake up at.
+     * @return - true iff the wait ended because of a signal.
+     * @post - signalled == false
+     */
+    boolean awaitUntil(long deadline) {
+        lock.lock();
+        try {
+            while (!signalled) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) return false;
+                try {
+                    woken.await(wait, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+            signalled = false;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
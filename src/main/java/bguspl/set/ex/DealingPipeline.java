@@ -0,0 +1,83 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.GameThreads;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plays the table changes on the user interface at the dealing pace.
+ * The table commits a change right away and hands its display to the pipeline: card updates are shown one after the
+ * other with the table delay before each one, and token updates are shown in between in the same order, without a
+ * delay. With no table delay the updates are shown on the calling thread.
+ * The pipeline thread mostly sleeps through the table delay, so it is a virtual thread when the game runs on them.
+ */
+class DealingPipeline {
+
+    /**
+     * The delay before showing each card update.
+     */
+    private final long delayMillis;
+
+    /**
+     * The single thread showing the updates in order (null if there is no delay).
+     */
+    private final ExecutorService executor;
+
+    /**
+     * @param config - the game configuration (the table delay, and whether to use virtual threads).
+     */
+    DealingPipeline(Config config) {
+        delayMillis = config.tableDelayMillis;
+        executor = delayMillis <= 0 ? null : Executors.newSingleThreadExecutor(task -> {
+            Thread thread = GameThreads.newThread(config, task, "dealing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Shows a card update after the updates already in the pipeline and the table delay.
+     *
+     * @param update - the user interface call to make.
+     */
+    void card(Runnable update) {
+        if (executor == null)
+            update.run();
+        else
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException ignored) {
+                }
+                update.run();
+            });
+    }
+
+    /**
+     * Shows a token update after the updates already in the pipeline.
+     *
+     * @param update - the user interface call to make.
+     */
+    void token(Runnable update) {
+        if (executor == null)
+            update.run();
+        else
+            executor.execute(update);
+    }
+
+    /**
+     * Waits until all the updates in the pipeline were shown.
+     */
+    void flush() {
+        if (executor == null)
+            return;
+        try {
+            executor.submit(() -> {
+            }).get();
+        } catch (InterruptedException | ExecutionException ignored) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The cards left in the dealer's deck, kept in a plain int array in no particular order.
+ * Drawing swaps a random card with the last one and shrinks the deck (i.e. one step of a Fisher-Yates shuffle), so
+ * drawing and returning a card both take constant time.
+ *
+ * @inv 0 <= size <= cards.length
+ */
+class Deck {
+
+    /**
+     * The card ids in the deck are cards[0] to cards[size - 1].
+     */
+    private final int[] cards;
+
+    private int size;
+
+    /**
+     * Picks the cards to draw.
+     */
+    private final Random random;
+
+    /**
+     * Creates a full deck.
+     *
+     * @param deckSize - the number of cards in the game.
+     * @param random   - the random generator used for drawing cards.
+     * @post - size() == deckSize
+     */
+    Deck(int deckSize, Random random) {
+        this.random = random;
+        cards = new int[deckSize];
+        for (int card = 0; card < deckSize; ++card)
+            cards[card] = card;
+        size = deckSize;
+    }
+
+    /**
+     * Removes a random card from the deck.
+     *
+     * @return - the card id drawn.
+     * @pre - size() > 0
+     * @post - size() == @pre(size()) - 1
+     */
+    int draw() {
+        int index = random.nextInt(size);
+        int card = cards[index];
+        cards[index] = cards[--size];
+        return card;
+    }
+
+    /**
+     * Returns a card to the deck.
+     *
+     * @param card - the card id to return (not in the deck).
+     * @post - size() == @pre(size()) + 1
+     */
+    void add(int card) {
+        cards[size++] = card;
+    }
+
+    /**
+     * @return - the number of cards in the deck.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return - true iff there are no cards left in the deck.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return - a copy of the card ids in the deck.
+     */
+    int[] toArray() {
+        return Arrays.copyOf(cards, size);
+    }
+}
@@ -0,0 +1,120 @@
+package bguspl.set.ex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Answers hint queries (i.e. which sets are on the table) from a snapshot cached per table version.
+ * The table lock is only taken to refresh the snapshot after the table changed, so frequent queries from bots or the
+ * user interface do not contend with the dealer.
+ */
+public class HintService {
+
+    /**
+     * A legal set on the table, as captured in a snapshot.
+     */
+    public static class Hint {
+
+        /**
+         * The slots of the cards of the set, in ascending order.
+         */
+        public final int[] slots;
+
+        /**
+         * The card ids of the set (respectively).
+         */
+        public final int[] cards;
+
+        Hint(int[] slots, int[] cards) {
+            this.slots = slots;
+            this.cards = cards;
+        }
+    }
+
+    /**
+     * The table the hints are about.
+     */
+    private final Table table;
+
+    /**
+     * Where published hints are delivered.
+     */
+    private volatile HintSink sink;
+
+    /**
+     * The hints of the last snapshot, and the table version it was taken at.
+     */
+    private volatile Snapshot snapshot = new Snapshot(-1, Collections.emptyList());
+
+    public HintService(Table table, HintSink sink) {
+        this.table = table;
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the sets currently on the table.
+     *
+     * @return - an unmodifiable list of hints, consistent with a single version of the table.
+     */
+    public List<Hint> hints() {
+        Snapshot current = snapshot;
+        if (current.version == table.version()) return current.hints;
+
+        table.lock().lock();
+        try {
+            current = snapshot;
+            long version = table.version();
+            if (current.version != version) {
+                List<Hint> hints = new ArrayList<>();
+                for (Iterator<int[]> it = table.setIterator(); it.hasNext(); ) {
+                    int[] cards = it.next();
+                    int[] slots = new int[cards.length];
+                    for (int i = 0; i < cards.length; ++i)
+                        slots[i] = table.slotOf(cards[i]);
+                    Arrays.sort(slots);
+                    int[] slotCards = new int[slots.length];
+                    for (int i = 0; i < slots.length; ++i)
+                        slotCards[i] = table.cardAt(slots[i]);
+                    hints.add(new Hint(slots, slotCards));
+                }
+                current = new Snapshot(version, Collections.unmodifiableList(hints));
+                snapshot = current;
+            }
+        } finally {
+            table.lock().unlock();
+        }
+        return current.hints;
+    }
+
+    /**
+     * Delivers the sets currently on the table to the sink.
+     */
+    public void publish() {
+        HintSink target = sink;
+        for (Hint hint : hints())
+            target.hint(hint.slots, hint.cards);
+    }
+
+    /**
+     * Replaces the sink published hints are delivered to.
+     *
+     * @param sink - the new sink.
+     */
+    public void setSink(HintSink sink) {
+        this.sink = sink;
+    }
+
+    private static class Snapshot {
+
+        final long version;
+        final List<Hint> hints;
+
+        Snapshot(long version, List<Hint> hints) {
+            this.version = version;
+            this.hints = hints;
+        }
+    }
+}
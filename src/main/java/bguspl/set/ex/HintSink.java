@@ -0,0 +1,30 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.Arrays;
+
+/**
+ * Receives the hints published by the HintService (i.e. the legal sets currently on the table).
+ */
+@FunctionalInterface
+public interface HintSink {
+
+    /**
+     * Called once for every set on the table.
+     *
+     * @param slots - the slots of the cards of the set, in ascending order.
+     * @param cards - the card ids of the set (respectively).
+     */
+    void hint(int[] slots, int[] cards);
+
+    /**
+     * Returns a sink that prints the hints to the console.
+     *
+     * @param util - used for printing the card features.
+     */
+    static HintSink console(Util util) {
+        return (slots, cards) -> System.out.println("Hint: Set found: slots: " + Arrays.toString(slots)
+                + " features: " + Arrays.deepToString(util.cardsToFeatures(cards)));
+    }
+}
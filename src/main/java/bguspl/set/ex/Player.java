@@ -1,10 +1,11 @@
 package bguspl.set.ex;
 
 //import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
-import java.util.logging.Level;
 import bguspl.set.Env;
+import bguspl.set.GameThreads;
 
 /**
  * This class manages the players' threads and data
@@ -37,10 +38,10 @@ public class Player implements Runnable {
     private Thread playerThread;
 
     /**
-     * The thread of the AI (computer) player (an additional thread used to generate
-     * key presses).
+     * The key press generator of the AI (computer) player, stepped by the dealer's
+     * bot scheduler (null for human players).
      */
-    private Thread aiThread;
+    private volatile Bot bot;
 
     /**
      * True iff the player is human (not a computer player).
@@ -58,11 +59,18 @@ public class Player implements Runnable {
     private int score;
 
     private BlockingQueue<Integer> actions;
-    private volatile boolean isCheck; // the dealer checked me
-    private volatile boolean inPenalty;
-    private volatile boolean getPoint;
-    private volatile boolean flag; // flag that I'm waiting for the dealer to check me
-    final private int AI_WAIT_TO_CHECK;
+
+    /**
+     * The verdicts of the player's claims, handed over by the dealer (a player has at
+     * most one claim pending, so a single place is enough).
+     */
+    private final BlockingQueue<Claim.Verdict> verdicts;
+
+    /**
+     * True from submitting a claim until its verdict and freeze are over (key presses
+     * are ignored meanwhile).
+     */
+    private volatile boolean waiting;
     final private int ACCURATE_TIMER;
 
     /**
@@ -82,12 +90,9 @@ public class Player implements Runnable {
         this.id = id;
         this.human = human;
         this.actions = new LinkedBlockingDeque<Integer>(env.config.featureSize);
+        this.verdicts = new ArrayBlockingQueue<>(1);
         this.terminate = false;
-        this.isCheck = true;
-        this.inPenalty = false;
-        this.getPoint = false;
-        this.flag = false;
-        this.AI_WAIT_TO_CHECK = 200;
+        this.waiting = false;
         this.ACCURATE_TIMER = 100;
     }
 
@@ -102,57 +107,35 @@ public class Player implements Runnable {
         if (!human)
             createArtificialIntelligence();
         while (!terminate) {
-            if (flag) {
-                // env.logger.log(Level.INFO, id + " ischeck is" + isCheck);
-                synchronized (this) {
-                    while (!isCheck) {
-                        try {
-                            // env.logger.log(Level.INFO, id + " inside wait");
-                            wait();
-                        } catch (InterruptedException ignored) {
-                        }
-                    }
-                }
-                // env.logger.log(Level.INFO, id + " outfrom sleep");
-                synchronized (this) {
-                    if (inPenalty) {
-                        // env.logger.log(Level.INFO, id + " in penalty");
-                        penalty();
-                    } else if (getPoint) {
-                        // env.logger.log(Level.INFO, id + " in point");
-                        point();
-                    }
-                    flag = false; // keep playing (dont need to wait for the dealer to check me)
-                }
-            }
-        }
-        if (!human)
+            Claim.Verdict verdict;
             try {
-                aiThread.join();
+                verdict = verdicts.take(); // sleep until the dealer checked my set
             } catch (InterruptedException ignored) {
+                continue;
+            }
+            if (verdict == Claim.Verdict.PENALTY) {
+                penalty();
+            } else if (verdict == Claim.Verdict.POINT) {
+                point();
             }
+            resume(); // keep playing
+        }
         env.logger.info("Thread " + Thread.currentThread().getName() + " terminated.");
     }
 
     /**
-     * Creates an additional thread for an AI (computer) player. The main loop of
-     * this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it
-     * is not full.
+     * Creates the key press generator of an AI (computer) player and starts it on the
+     * dealer's bot scheduler. The bot presses random slots (see Bot), or looks for
+     * sets (see SmartBot) with the smart strategy, without ever blocking, and sleeps
+     * while the player waits for a verdict.
      */
     private void createArtificialIntelligence() {
-        // note: this is a very very smart AI (!)
-        aiThread = new Thread(() -> {
-            env.logger.info("Thread " + Thread.currentThread().getName() + " starting.");
-            while (!terminate) {
-                int sizeTable = env.config.tableSize;
-                int aiSlot = (int) (Math.random() * sizeTable);
-                keyPressed(aiSlot);
-            }
-
-            env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
-        }, "computer-" + id);
-        aiThread.start();
+        if (env.config.botStrategy.equalsIgnoreCase("smart"))
+            bot = new SmartBot(this, table, env.config.botDelayMillis, env.config.botActionsPerSecond,
+                    env.config.botReactionMillis, env.config.botReactionDeviationMillis);
+        else // note: this is a very very smart AI (!)
+            bot = new Bot(this, env.config.tableSize, env.config.botDelayMillis, env.config.botActionsPerSecond);
+        dealer.getBotScheduler().start(bot);
     }
 
     /**
@@ -161,14 +144,30 @@ public class Player implements Runnable {
     public void terminate() {
         terminate = true;
 
-        if (!human) {
-            aiThread.interrupt();
-
-        }
-        synchronized (this) {
-            isCheck = true;
-            this.notifyAll();
+        if (bot != null) {
+            bot.stop();
         }
+        verdicts.clear();
+        verdicts.offer(Claim.Verdict.RELEASED); // wake up the player thread
+        resume();
+    }
+
+    /**
+     * Hands the verdict of the player's claim over to the player thread.
+     *
+     * @param verdict - the outcome of the claim.
+     */
+    void receive(Claim.Verdict verdict) {
+        verdicts.offer(verdict);
+    }
+
+    /**
+     * Lets the player make actions again after a claim was handled.
+     */
+    private void resume() {
+        waiting = false;
+        if (bot != null)
+            bot.wake();
     }
 
     /**
@@ -177,7 +176,7 @@ public class Player implements Runnable {
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-        if (!inPenalty && !getPoint && isCheck && !flag) { // the player can make actions
+        if (!waiting) { // the player can make actions
             if (table.removeToken(id, slot) == true) { // the player intended to remove the token when he chose this
                                                        // slot
                 actions.remove((Object) slot);
@@ -185,23 +184,13 @@ public class Player implements Runnable {
 
             else if (actions.size() < env.config.featureSize) { // the player intended to place a token when he chose
                                                                 // this slot
-                synchronized (this) {
-                    if (table.placeToken(id, slot)) { // if the player chose a slot with a card
-                        actions.add(slot);
-                    }
-                    if (actions.size() == env.config.featureSize) { // update all the relevant parameters that im
-                                                                    // waiting to be checked
-                        flag = true;
-                        isCheck = false;
-                        dealer.setPlayersToCheck(this);
-                        dealer.getDealerThread().interrupt();
-                        if (!human) {
-                            try {
-                                Thread.sleep(AI_WAIT_TO_CHECK);
-                            } catch (InterruptedException e) {
-                            }
-                        }
-                    }
+                if (table.placeToken(id, slot)) { // if the player chose a slot with a card
+                    actions.add(slot);
+                }
+                if (actions.size() == env.config.featureSize) { // wait to be checked by the dealer
+                    waiting = true;
+                    dealer.setPlayersToCheck(this);
+                    dealer.wakeUp();
                 }
 
             }
@@ -229,7 +218,6 @@ public class Player implements Runnable {
         }
         env.ui.setFreeze(id, -ACCURATE_TIMER);
         actions.clear();
-        getPoint = false;
         int ignored = table.countCards(); // this part is just for demonstration in the unit tests
 
     }
@@ -254,7 +242,6 @@ public class Player implements Runnable {
 
         }
         env.ui.setFreeze(id, -ACCURATE_TIMER);
-        inPenalty = false;
     }
 
     public int getScore() {
@@ -287,7 +274,7 @@ public class Player implements Runnable {
     }
 
     public void setThread() {
-        playerThread = new Thread(this, "" + id);
+        playerThread = GameThreads.newThread(env.config, this, "" + id);
     }
 
     /**
@@ -302,31 +289,11 @@ public class Player implements Runnable {
 
     }
 
-    public void setToCheck() {
-        isCheck = true;
-        // env.logger.log(Level.INFO, id + "set check to true" + "" + isCheck);
-    }
-
-    public void setInPenalty() {
-        inPenalty = true;
-        // env.logger.log(Level.INFO, id + "set penalty to true" + "" + inPenalty);
-    }
-
-    public synchronized boolean getInPenalty() {
-        return inPenalty;
-    }
-
-    public synchronized void setGetPoint() {
-        getPoint = true;
-        // env.logger.log(Level.INFO, id + "set get pointtrue" + "" + getPoint);
-    }
-
-    public synchronized boolean getGetPoint() {
-        return getPoint;
-    }
-
-    public Thread getAiThread() {
-        return aiThread;
+    /**
+     * @return - true iff the player waits for a verdict or is frozen.
+     */
+    public boolean isWaiting() {
+        return waiting;
     }
 
     public boolean getIsHuman() {
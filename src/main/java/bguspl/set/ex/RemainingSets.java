@@ -0,0 +1,73 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.BitSet;
+
+/**
+ * Counts the legal sets that can still be formed from the cards in play (i.e. the deck and the table together).
+ * Dealing a card moves it from the deck to the table and does not change the count; only cards that leave the
+ * game (i.e. the cards of a set a player scored) do.
+ *
+ * @inv count >= 0
+ */
+class RemainingSets {
+
+    /**
+     * Used for finding the sets that include a removed card.
+     */
+    private final Util util;
+
+    /**
+     * The cards in play.
+     */
+    private final BitSet cards = new BitSet();
+
+    /**
+     * The number of legal sets among the cards in play.
+     */
+    private int count;
+
+    RemainingSets(Util util) {
+        this.util = util;
+    }
+
+    /**
+     * Starts tracking a new collection of cards in play.
+     *
+     * @param cardsInPlay - the card ids in the deck and on the table.
+     */
+    void reset(int[] cardsInPlay) {
+        cards.clear();
+        for (int card : cardsInPlay)
+            cards.set(card);
+        count = util.countSets(cardsInPlay);
+    }
+
+    /**
+     * Takes a card out of the game, together with every set it was part of.
+     *
+     * @param card - the card id to remove.
+     * @post - count == @pre(count) - the number of sets that included the card
+     */
+    void remove(int card) {
+        if (cards.get(card)) {
+            cards.clear(card);
+            count -= util.countSetsContaining(card, cards.stream().toArray());
+        }
+    }
+
+    /**
+     * @return - true iff a legal set can still be formed from the cards in play.
+     */
+    boolean hasSet() {
+        return count > 0;
+    }
+
+    /**
+     * @return - the number of legal sets that can still be formed from the cards in play.
+     */
+    int count() {
+        return count;
+    }
+}
@@ -0,0 +1,223 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A live index of all the legal sets among a changing collection of cards (e.g. the cards on the table).
+ * Adding or removing a card only touches the sets that include that card.
+ * Guarded by a ReentrantLock rather than a monitor, so a virtual thread waiting for the index does not pin its carrier.
+ *
+ * @inv every indexed set contains only indexed cards
+ */
+class SetIndex {
+
+    /**
+     * Used for finding the sets that a new card completes.
+     */
+    private final Util util;
+
+    /**
+     * All the legal sets among the indexed cards.
+     */
+    private final Set<int[]> sets = new LinkedHashSet<>();
+
+    /**
+     * The sets each indexed card is part of, by card id (only the indexed cards have an entry, so the index takes
+     * memory in proportion to the table and not to the deck).
+     */
+    private final CardMap setsByCard;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param util     - used for finding the sets that include a card.
+     * @param capacity - the expected number of indexed cards (e.g. the table size).
+     */
+    SetIndex(Util util, int capacity) {
+        this.util = util;
+        setsByCard = new CardMap(capacity);
+    }
+
+    /**
+     * Adds a card to the index, together with every set it forms with the indexed cards.
+     *
+     * @param card - the card id to add.
+     */
+    void add(int card) {
+        lock.lock();
+        try {
+            if (setsByCard.get(card) != null) return;
+            List<int[]> found = util.findSetsContaining(card, setsByCard.cards(), Integer.MAX_VALUE);
+            setsByCard.put(card, new ArrayList<>());
+            for (int[] set : found) {
+                sets.add(set);
+                for (int c : set)
+                    setsByCard.get(c).add(set);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a card from the index, together with every set it was part of.
+     *
+     * @param card - the card id to remove.
+     */
+    void remove(int card) {
+        lock.lock();
+        try {
+            List<int[]> gone = setsByCard.remove(card);
+            if (gone == null) return;
+            for (int[] set : gone) {
+                sets.remove(set);
+                for (int c : set)
+                    if (c != card)
+                        setsByCard.get(c).remove(set);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return - true iff there is at least one legal set among the indexed cards.
+     */
+    boolean hasSet() {
+        lock.lock();
+        try {
+            return !sets.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return - the number of legal sets among the indexed cards.
+     */
+    int size() {
+        lock.lock();
+        try {
+            return sets.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return - an iterator over a snapshot of the current sets, each one a sorted array of card ids.
+     */
+    Iterator<int[]> iterator() {
+        lock.lock();
+        try {
+            return new ArrayList<>(sets).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A small open-addressing hash map from card ids to their sets (linear probing, with backward shift on removal,
+     * so there are no tombstones).
+     *
+     * @inv 2 * size < keys.length
+     */
+    private static class CardMap {
+
+        private static final int EMPTY = -1;
+
+        private int[] keys;
+        private List<List<int[]>> values;
+        private int size;
+
+        CardMap(int capacity) {
+            allocate(Integer.highestOneBit(Math.max(4, capacity) * 2 - 1) * 2);
+        }
+
+        private void allocate(int length) {
+            keys = new int[length];
+            Arrays.fill(keys, EMPTY);
+            values = new ArrayList<>(Collections.nCopies(length, (List<int[]>) null));
+            size = 0;
+        }
+
+        private int home(int card) {
+            int hash = card * 0x9E3779B9;
+            return (hash ^ hash >>> 16) & (keys.length - 1);
+        }
+
+        /**
+         * @return - the index of the card's entry, or of the empty entry where it would go.
+         */
+        private int find(int card) {
+            int i = home(card);
+            while (keys[i] != EMPTY && keys[i] != card)
+                i = (i + 1) & (keys.length - 1);
+            return i;
+        }
+
+        List<int[]> get(int card) {
+            int i = find(card);
+            return keys[i] == card ? values.get(i) : null;
+        }
+
+        void put(int card, List<int[]> sets) {
+            if (2 * (size + 1) >= keys.length) {
+                int[] oldKeys = keys;
+                List<List<int[]>> oldValues = values;
+                allocate(keys.length * 2);
+                for (int i = 0; i < oldKeys.length; ++i)
+                    if (oldKeys[i] != EMPTY)
+                        put(oldKeys[i], oldValues.get(i));
+            }
+            int i = find(card);
+            if (keys[i] == EMPTY) ++size;
+            keys[i] = card;
+            values.set(i, sets);
+        }
+
+        /**
+         * @return - the sets of the removed card, or null if it was not in the map.
+         */
+        List<int[]> remove(int card) {
+            int i = find(card);
+            if (keys[i] != card) return null;
+            List<int[]> removed = values.get(i);
+            int mask = keys.length - 1;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int k = home(keys[j]);
+                if (((j - k) & mask) >= ((j - i) & mask)) { // the entry at j may move back to the hole at i
+                    keys[i] = keys[j];
+                    values.set(i, values.get(j));
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+            values.set(i, null);
+            --size;
+            return removed;
+        }
+
+        /**
+         * @return - the card ids in the map, in ascending order.
+         */
+        int[] cards() {
+            int[] cards = new int[size];
+            int n = 0;
+            for (int key : keys)
+                if (key != EMPTY)
+                    cards[n++] = key;
+            Arrays.sort(cards);
+            return cards;
+        }
+    }
+}
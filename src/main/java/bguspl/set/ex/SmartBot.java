@@ -0,0 +1,96 @@
+package bguspl.set.ex;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A computer player that actually looks for sets.
+ * The bot reads the sets on the table from the table's hint service, which caches them per table version, so all the
+ * bots of a table share a single search per deal. When the table changes, the bot picks one of the sets, waits a
+ * reaction time drawn from a normal distribution, takes back its tokens that are not on the set and places the tokens
+ * of the set, one key press per step.
+ */
+class SmartBot extends Bot {
+
+    /**
+     * The table the bot plays on.
+     */
+    private final Table table;
+
+    /**
+     * The mean and standard deviation of the reaction time.
+     */
+    private final long reactionMillis;
+    private final long deviationMillis;
+
+    /**
+     * The slots of the set the bot goes for (null if there is no set on the table).
+     */
+    private int[] plan;
+
+    /**
+     * The table version the plan was made for.
+     */
+    private long planVersion = -1;
+
+    /**
+     * The time the bot starts pressing the keys of the plan.
+     */
+    private long readyAt;
+
+    /**
+     * @param player          - the computer player.
+     * @param table           - the table the bot plays on.
+     * @param delayMillis     - the delay between two key presses.
+     * @param perSecond       - the maximal number of key presses per second (0 for unlimited).
+     * @param reactionMillis  - the mean time from a change of the table to the first key press.
+     * @param deviationMillis - the standard deviation of the reaction time.
+     */
+    SmartBot(Player player, Table table, long delayMillis, double perSecond, long reactionMillis,
+             long deviationMillis) {
+        super(player, table.slotCount(), delayMillis, perSecond);
+        this.table = table;
+        this.reactionMillis = reactionMillis;
+        this.deviationMillis = deviationMillis;
+    }
+
+    @Override
+    protected long think() {
+        long now = System.currentTimeMillis();
+        long version = table.version();
+        if (version != planVersion) {
+            planVersion = version;
+            List<HintService.Hint> sets = table.getHintService().hints();
+            plan = sets.isEmpty() ? null : sets.get(ThreadLocalRandom.current().nextInt(sets.size())).slots;
+            readyAt = now + reactionTime();
+        }
+        if (plan == null) // nothing to do until the table changes
+            return Math.max(1, Math.max(delayMillis, reactionMillis));
+        return Math.max(0, readyAt - now);
+    }
+
+    @Override
+    protected int nextSlot() {
+        for (int slot : table.tokensOf(player.id)) // take back the tokens that are not on the set
+            if (!contains(plan, slot))
+                return slot;
+        for (int slot : plan)
+            if (!table.hasToken(player.id, slot))
+                return slot;
+        return plan[0];
+    }
+
+    /**
+     * @return - a random reaction time (never negative).
+     */
+    private long reactionTime() {
+        return Math.max(0, Math.round(reactionMillis + ThreadLocalRandom.current().nextGaussian() * deviationMillis));
+    }
+
+    private static boolean contains(int[] slots, int slot) {
+        for (int s : slots)
+            if (s == slot)
+                return true;
+        return false;
+    }
+}
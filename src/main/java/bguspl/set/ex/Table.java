@@ -2,50 +2,121 @@ package bguspl.set.ex;
 
 import bguspl.set.Env;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class contains the data that is visible to the player.
+ * The card and the tokens of each slot are kept in atomic words, so players read
+ * slots and place or remove their tokens without locking. Only the dealer
+ * changes the cards, and it does so while holding the table lock.
  *
- * @inv slotToCard[x] == y iff cardToSlot[y] == x
+ * @inv cardAt(x) == y iff slotOf(y) == x
+ * @inv cardsOnTable.get(y) iff slotOf(y) != NO_SLOT
  */
 public class Table {
 
+    /**
+     * The card id of an empty slot.
+     */
+    public static final int NO_CARD = -1;
+
+    /**
+     * The slot of a card that is not on the table.
+     */
+    public static final int NO_SLOT = -1;
+
+    /**
+     * Decks larger than this do not get a card to slot array (cardToSlot); the slot of a
+     * card is then found by scanning the slots of the cards in cardsOnTable.
+     */
+    static final int MAX_INDEXED_DECK = 1 << 20;
+
     /**
      * The game environment object.
      */
     private final Env env;
 
     /**
-     * Mapping between a slot and the card placed in it (null if none).
+     * The state of each slot as a single word: the slot version in the high 32 bits and
+     * the card id + 1 in the low 32 bits (0 if the slot is empty), i.e. the mapping
+     * between a slot and the card placed in it.
+     * The version of a slot is incremented whenever its card changes.
      */
-    protected final Integer[] slotToCard; // card per slot (if any)
+    private final AtomicLongArray slots;
 
     /**
-     * Mapping between a card and the slot it is in (null if none).
+     * Mapping between a card and the slot it is in (NO_SLOT if none), or null for
+     * decks larger than MAX_INDEXED_DECK. Changed only under the table lock.
      */
-    protected final Integer[] cardToSlot; // slot per card (if any)
+    protected final int[] cardToSlot;
+
+    /**
+     * The cards currently on the table. Changed only under the table lock.
+     */
+    private final BitSet cardsOnTable = new BitSet();
+
+    /**
+     * The tokens on the table, as packed bitmasks per slot and per player.
+     */
+    private final TokenBitmap tokens;
+
+    /**
+     * The legal sets among the cards currently on the table.
+     */
+    private final SetIndex sets;
+
     /**
-     * Record the tokens of each player - we add
+     * Incremented whenever a card is placed or removed (i.e. whenever the sets on the table may change).
      */
-    protected final boolean[][][] playerTokens;
+    private volatile long version;
+
+    /**
+     * Answers hint queries from a snapshot cached per table version.
+     */
+    private final HintService hintService;
+
+    /**
+     * Shows the table changes on the user interface at the dealing pace.
+     */
+    private final DealingPipeline dealing;
+
+    /**
+     * Held by the dealer while it changes the cards, and by readers that need a
+     * consistent view of several slots (a lock rather than the table's monitor, so
+     * virtual threads waiting for it do not pin their carrier threads).
+     */
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * Constructor for testing.
      *
      * @param env        - the game environment objects.
-     * @param slotToCard - mapping between a slot and the card placed in it (null if
-     *                   none).
-     * @param cardToSlot - mapping between a card and the slot it is in (null if
-     *                   none).
+     * @param slotToCard - the card initially placed in each slot (NO_CARD if none).
      */
-    public Table(Env env, Integer[] slotToCard, Integer[] cardToSlot) {
+    public Table(Env env, int[] slotToCard) {
         this.env = env;
-        this.slotToCard = slotToCard;
-        this.cardToSlot = cardToSlot;
-        playerTokens = new boolean[env.config.players][env.config.rows][env.config.columns];
+        slots = new AtomicLongArray(slotToCard.length);
+        if (env.config.deckSize <= MAX_INDEXED_DECK) {
+            cardToSlot = new int[env.config.deckSize];
+            Arrays.fill(cardToSlot, NO_SLOT);
+        } else
+            cardToSlot = null;
+        tokens = new TokenBitmap(slotToCard.length, env.config.players);
+        sets = new SetIndex(env.util, slotToCard.length);
+        for (int slot = 0; slot < slotToCard.length; ++slot)
+            if (slotToCard[slot] != NO_CARD) {
+                slots.set(slot, word(0, slotToCard[slot]));
+                mapCard(slotToCard[slot], slot);
+                sets.add(slotToCard[slot]);
+            }
+        hintService = new HintService(this, HintSink.console(env.util));
+        dealing = new DealingPipeline(env.config);
     }
 
     /**
@@ -54,23 +125,237 @@ public class Table {
      * @param env - the game environment objects.
      */
     public Table(Env env) {
-        this(env, new Integer[env.config.tableSize], new Integer[env.config.deckSize]);
+        this(env, emptySlots(env.config.tableSize));
+    }
+
+    private static int[] emptySlots(int tableSize) {
+        int[] slots = new int[tableSize];
+        Arrays.fill(slots, NO_CARD);
+        return slots;
     }
 
     /**
-     * This method prints all possible legal sets of cards that are currently on the
-     * table.
+     * Records the slot of a card (or that it left the table, if slot is NO_SLOT).
+     */
+    private void mapCard(int card, int slot) {
+        cardsOnTable.set(card, slot != NO_SLOT);
+        if (cardToSlot != null)
+            cardToSlot[card] = slot;
+    }
+
+    /**
+     * @return - the table lock.
+     */
+    Lock lock() {
+        return lock;
+    }
+
+    /**
+     * This method delivers all possible legal sets of cards that are currently on the
+     * table to the hint sink (the console unless changed).
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
-            StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
-            List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted()
-                    .collect(Collectors.toList());
-            int[][] features = env.util.cardsToFeatures(set);
-            System.out.println(
-                    sb.append("slots: ").append(slots).append(" features: ").append(Arrays.deepToString(features)));
-        });
+        hintService.publish();
+    }
+
+    /**
+     * Returns the hint service of this table (for querying hints or changing where they are delivered).
+     *
+     * @return - the hint service.
+     */
+    public HintService getHintService() {
+        return hintService;
+    }
+
+    /**
+     * Returns the current version of the table.
+     *
+     * @return - a number that changes whenever a card is placed or removed.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Waits until the user interface shows all the changes made to the table so far.
+     * Changes are committed right away, while the table delay only paces their display.
+     */
+    public void flushDisplay() {
+        dealing.flush();
+    }
+
+    /**
+     * Checks if there is a legal set among the cards currently on the table.
+     *
+     * @return - true iff the table contains at least one set.
+     */
+    public boolean hasSet() {
+        return sets.hasSet();
+    }
+
+    /**
+     * Count the legal sets among the cards currently on the table.
+     *
+     * @return - the number of sets on the table.
+     */
+    public int setCount() {
+        return sets.size();
+    }
+
+    /**
+     * Returns the legal sets among the cards currently on the table.
+     *
+     * @return - an iterator over a snapshot of the sets, each one a sorted array of card ids.
+     */
+    public Iterator<int[]> setIterator() {
+        return sets.iterator();
+    }
+
+    /**
+     * Returns the card in a slot.
+     *
+     * @param slot - the slot to read.
+     * @return - the card id in the slot, or NO_CARD if the slot is empty.
+     */
+    public int cardAt(int slot) {
+        return card(slots.get(slot));
+    }
+
+    /**
+     * Returns the slot a card is in.
+     *
+     * @param card - the card id to look for.
+     * @return - the slot of the card, or NO_SLOT if the card is not on the table.
+     */
+    public int slotOf(int card) {
+        if (cardToSlot != null)
+            return cardToSlot[card];
+        if (cardsOnTable.get(card))
+            for (int slot = 0; slot < slots.length(); ++slot)
+                if (cardAt(slot) == card)
+                    return slot;
+        return NO_SLOT;
+    }
+
+    /**
+     * Checks if a card is on the table.
+     *
+     * @param card - the card id to look for.
+     * @return - true iff the card is in one of the slots.
+     */
+    public boolean isOnTable(int card) {
+        return cardsOnTable.get(card);
+    }
+
+    /**
+     * @return - the number of slots on the table.
+     */
+    public int slotCount() {
+        return slots.length();
+    }
+
+    /**
+     * Returns the state of a slot (its card and version) as a single word, so it can be
+     * compared later to check that the slot did not change in between.
+     *
+     * @param slot - the slot to read.
+     * @return - the slot word (see card(long) and version(long)).
+     */
+    public long slotWord(int slot) {
+        return slots.get(slot);
+    }
+
+    /**
+     * @param word - a slot word.
+     * @return - the card id in the word, or NO_CARD if the slot was empty.
+     */
+    public static int card(long word) {
+        return (int) word - 1;
+    }
+
+    /**
+     * @param word - a slot word.
+     * @return - the version of the slot in the word.
+     */
+    public static int version(long word) {
+        return (int) (word >>> 32);
+    }
+
+    private static long word(int version, int card) {
+        return (long) version << 32 | (card + 1L);
+    }
+
+    /**
+     * Checks if a player has a token on a slot.
+     *
+     * @param player - the player id.
+     * @param slot   - the slot to check.
+     * @return - true iff the player has a token on the slot.
+     */
+    public boolean hasToken(int player, int slot) {
+        return tokens.has(player, slot);
+    }
+
+    /**
+     * Checks if any player other than the given one has a token on a slot.
+     *
+     * @param player - the player to ignore.
+     * @param slot   - the slot to check.
+     * @return - true iff another player has a token on the slot.
+     */
+    public boolean hasOtherTokens(int player, int slot) {
+        return tokens.hasOthers(player, slot);
+    }
+
+    /**
+     * Calls an action for each player with a token on a slot (a snapshot of the slot's
+     * bitmask, so the action may remove tokens).
+     *
+     * @param slot   - the slot to check.
+     * @param action - called with the id of each player with a token on the slot.
+     */
+    public void forEachPlayerOn(int slot, IntConsumer action) {
+        tokens.forEachPlayerOn(slot, action);
+    }
+
+    /**
+     * Returns the slots a player has tokens on.
+     *
+     * @param player - the player id.
+     * @return - the slots, in ascending order.
+     */
+    public int[] tokensOf(int player) {
+        IntStream.Builder slots = IntStream.builder();
+        tokens.forEachSlotOf(player, slots::add);
+        return slots.build().toArray();
+    }
+
+    /**
+     * Count the tokens a player has on the table.
+     *
+     * @param player - the player id.
+     * @return - the number of tokens of the player.
+     */
+    public int countTokens(int player) {
+        return tokens.count(player);
+    }
+
+    /**
+     * Removes all the tokens of a player from the table.
+     *
+     * @param player - the player id.
+     */
+    public void removeTokens(int player) {
+        tokens.clearPlayer(player, slot -> dealing.token(() -> env.ui.removeToken(player, slot)));
+    }
+
+    /**
+     * Copies all the tokens on the table.
+     *
+     * @return - the players with a token on each slot, as a bitmask of (players + 63) / 64 words per slot.
+     */
+    public long[] tokenSnapshot() {
+        return tokens.snapshot();
     }
 
     /**
@@ -80,8 +365,8 @@ public class Table {
      */
     public int countCards() {
         int cards = 0;
-        for (Integer card : slotToCard)
-            if (card != null)
+        for (int slot = 0; slot < slots.length(); ++slot)
+            if (cardAt(slot) != NO_CARD)
                 ++cards;
         return cards;
     }
@@ -93,19 +378,21 @@ public class Table {
      * @param slot - the slot in which the card should be placed.
      *
      * @post - the card placed is on the table, in the assigned slot.
-     *       cardToSlot[card] = slot
-     *       slotToCard[slot] = card
+     *       slotOf(card) == slot
+     *       cardAt(slot) == card
      */
     public void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-
-        } catch (InterruptedException ignored) {
+        long word = slots.get(slot);
+        int old = card(word);
+        if (old != NO_CARD) {
+            sets.remove(old);
+            mapCard(old, NO_SLOT);
         }
-
-        cardToSlot[card] = slot;
-        slotToCard[slot] = card;
-        env.ui.placeCard(card, slot);
+        mapCard(card, slot);
+        sets.add(card);
+        slots.set(slot, word(version(word) + 1, card));
+        ++version;
+        dealing.card(() -> env.ui.placeCard(card, slot));
     }
 
     /**
@@ -118,46 +405,46 @@ public class Table {
      *       none
      * @post
      *       - the card is not on the table anymore
-     *       cardToSlot[card] = null
-     *       slotToCard[slot] = null
+     *       slotOf(card) == NO_SLOT
+     *       cardAt(slot) == NO_CARD
      */
     public void removeCard(int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {
-        }
-        int row = slot / env.config.columns;
-        int column = slot % env.config.columns;
-        int players = env.config.players;
-        for (int i = 0; i < players; i++) {
-            if (playerTokens[i][row][column] == true) {
-                removeToken(i, slot);
-            }
+        long word = slots.get(slot);
+        int card = card(word);
+        if (card != NO_CARD) {
+            slots.set(slot, word(version(word) + 1, NO_CARD)); // before clearing, so no token is placed after it
+            mapCard(card, NO_SLOT);
+            sets.remove(card);
+            ++version;
         }
-        int card = slotToCard[slot];
-        if (slotToCard[slot] != null) {
-            cardToSlot[card] = null;
-            slotToCard[slot] = null;
-        }
-        env.ui.removeCard(slot);
+        tokens.clearSlot(slot, player -> dealing.token(() -> env.ui.removeToken(player, slot)));
+        dealing.card(() -> env.ui.removeCard(slot));
 
     }
 
     /**
      * Places a player token on a grid slot.
+     * The token is set with a compare-and-set, and then the slot is checked again:
+     * if its card was removed or replaced in the meantime the token is taken back,
+     * so a token never outlives the card it was placed on.
      * 
      * @param player - the player the token belongs to.
      * @param slot   - the slot on which to place the token.
+     * @return - true iff the slot has a card and the token is on it.
      */
-    public synchronized boolean placeToken(int player, int slot) {
-        if (slotToCard[slot] != null) {
-            env.ui.placeToken(player, slot);
-            int row = slot / env.config.columns;
-            int column = slot % env.config.columns;
-            playerTokens[player][row][column] = true;
-            return true;
+    public boolean placeToken(int player, int slot) {
+        long word = slots.get(slot);
+        if (card(word) == NO_CARD)
+            return false;
+        if (!tokens.place(player, slot))
+            return true; // the token is already there
+        dealing.token(() -> env.ui.placeToken(player, slot));
+        if (slots.get(slot) != word) { // the card changed while placing the token
+            tokens.remove(player, slot);
+            dealing.token(() -> env.ui.removeToken(player, slot));
+            return false;
         }
-        return false;
+        return true;
     }
 
     /**
@@ -172,16 +459,13 @@ public class Table {
      *       none
      * @post
      *       -if the token was on the table, we removed it from the slot
-     *       playerTokens[player][row][column]=false;
+     *       hasToken(player, slot) == false
      */
     public boolean removeToken(int player, int slot) {
-        int row = slot / env.config.columns;
-        int column = slot % env.config.columns;
-        if (!playerTokens[player][row][column]) {
+        if (!tokens.remove(player, slot)) {
             return false;
         }
-        env.ui.removeToken(player, slot);
-        playerTokens[player][row][column] = false;
+        dealing.token(() -> env.ui.removeToken(player, slot));
         return true;
     }
 
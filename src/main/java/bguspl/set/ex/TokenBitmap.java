@@ -0,0 +1,185 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * The tokens on the table as two packed bitmasks: for every slot, the players with a token on it, and for every
+ * player, the slots it has tokens on. Each mask is a run of atomic words (bit i of a mask is bit i % 64 of its word
+ * i / 64), changed with compare-and-set, so tokens are placed and removed without locking.
+ * The slot masks are the authority on which tokens exist; a player mask is updated right after the slot mask and may
+ * briefly lag behind it while a token is placed or removed.
+ */
+class TokenBitmap {
+
+    /**
+     * The number of slots.
+     */
+    private final int slots;
+
+    /**
+     * The number of words in the mask of each slot (over players) and of each player (over slots).
+     */
+    private final int playerWords;
+    private final int slotWords;
+
+    /**
+     * The players with a token on each slot.
+     */
+    private final AtomicLongArray slotPlayers;
+
+    /**
+     * The slots each player has tokens on.
+     */
+    private final AtomicLongArray playerSlots;
+
+    /**
+     * @param slots   - the number of slots on the table.
+     * @param players - the number of players.
+     */
+    TokenBitmap(int slots, int players) {
+        this.slots = slots;
+        playerWords = words(players);
+        slotWords = words(slots);
+        slotPlayers = new AtomicLongArray(slots * playerWords);
+        playerSlots = new AtomicLongArray(players * slotWords);
+    }
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * Places a token.
+     *
+     * @return - true iff the token was not there before.
+     */
+    boolean place(int player, int slot) {
+        if (!update(slotPlayers, slot * playerWords, player, true))
+            return false;
+        update(playerSlots, player * slotWords, slot, true);
+        if (!has(player, slot)) // the slot was cleared in between, before the player mask was updated
+            update(playerSlots, player * slotWords, slot, false);
+        return true;
+    }
+
+    /**
+     * Removes a token.
+     *
+     * @return - true iff the token was there before.
+     */
+    boolean remove(int player, int slot) {
+        if (!update(slotPlayers, slot * playerWords, player, false))
+            return false;
+        update(playerSlots, player * slotWords, slot, false);
+        return true;
+    }
+
+    /**
+     * @return - true iff the player has a token on the slot.
+     */
+    boolean has(int player, int slot) {
+        return (slotPlayers.get(slot * playerWords + player / Long.SIZE) & 1L << player) != 0;
+    }
+
+    /**
+     * @return - true iff any player other than the given one has a token on the slot.
+     */
+    boolean hasOthers(int player, int slot) {
+        for (int w = 0; w < playerWords; ++w) {
+            long mask = slotPlayers.get(slot * playerWords + w);
+            if (w == player / Long.SIZE)
+                mask &= ~(1L << player);
+            if (mask != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return - the number of tokens the player has on the table.
+     */
+    int count(int player) {
+        int count = 0;
+        for (int w = 0; w < slotWords; ++w)
+            count += Long.bitCount(playerSlots.get(player * slotWords + w));
+        return count;
+    }
+
+    /**
+     * Calls an action for each player with a token on a slot (according to a snapshot of the mask).
+     */
+    void forEachPlayerOn(int slot, IntConsumer action) {
+        for (int w = 0; w < playerWords; ++w)
+            forEachBit(slotPlayers.get(slot * playerWords + w), w * Long.SIZE, action);
+    }
+
+    /**
+     * Calls an action for each slot a player has a token on (according to a snapshot of the mask).
+     */
+    void forEachSlotOf(int player, IntConsumer action) {
+        for (int w = 0; w < slotWords; ++w)
+            forEachBit(playerSlots.get(player * slotWords + w), w * Long.SIZE, action);
+    }
+
+    /**
+     * Removes all the tokens on a slot.
+     *
+     * @param action - called with the id of each player whose token was removed.
+     */
+    void clearSlot(int slot, IntConsumer action) {
+        for (int w = 0; w < playerWords; ++w)
+            forEachBit(slotPlayers.getAndSet(slot * playerWords + w, 0), w * Long.SIZE, player -> {
+                update(playerSlots, player * slotWords, slot, false);
+                action.accept(player);
+            });
+    }
+
+    /**
+     * Removes all the tokens of a player.
+     *
+     * @param action - called with each slot the token was removed from.
+     */
+    void clearPlayer(int player, IntConsumer action) {
+        forEachSlotOf(player, slot -> {
+            if (remove(player, slot))
+                action.accept(slot);
+        });
+    }
+
+    /**
+     * Copies the slot masks (i.e. all the tokens on the table).
+     *
+     * @return - the masks of all the slots, playerWords words per slot.
+     */
+    long[] snapshot() {
+        long[] copy = new long[slots * playerWords];
+        for (int i = 0; i < copy.length; ++i)
+            copy[i] = slotPlayers.get(i);
+        return copy;
+    }
+
+    /**
+     * Sets or clears a bit of a mask.
+     *
+     * @return - true iff the bit changed.
+     */
+    private static boolean update(AtomicLongArray masks, int start, int bit, boolean on) {
+        int index = start + bit / Long.SIZE;
+        long value = 1L << bit;
+        while (true) {
+            long mask = masks.get(index);
+            if (((mask & value) != 0) == on)
+                return false;
+            if (masks.compareAndSet(index, mask, mask ^ value))
+                return true;
+        }
+    }
+
+    private static void forEachBit(long mask, int offset, IntConsumer action) {
+        while (mask != 0) {
+            action.accept(offset + Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package bguspl.set.ex;
+
+/**
+ * A token bucket rate limiter: permits are refilled continuously at a fixed rate, up to a burst of one second's
+ * worth of permits (at least one), and every action takes one permit.
+ *
+ * @inv 0 <= permits <= capacity
+ */
+class TokenBucket {
+
+    /**
+     * The refill rate in permits per nanosecond.
+     */
+    private final double ratePerNano;
+
+    /**
+     * The maximal number of permits.
+     */
+    private final double capacity;
+
+    /**
+     * The permits available at lastRefill.
+     */
+    private double permits;
+    private long lastRefill;
+
+    /**
+     * @param perSecond - the number of permits refilled per second (must be positive).
+     */
+    TokenBucket(double perSecond) {
+        ratePerNano = perSecond / 1e9;
+        capacity = Math.max(1, perSecond);
+        permits = capacity;
+        lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a permit if one is available.
+     *
+     * @return - 0 if a permit was taken, or else the number of milliseconds until one is available.
+     */
+    synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        permits = Math.min(capacity, permits + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+        if (permits >= 1) {
+            permits -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - permits) / ratePerNano / 1e6));
+    }
+
+    /**
+     * Returns a permit taken by tryAcquire that was not used.
+     */
+    synchronized void refund() {
+        permits = Math.min(capacity, permits + 1);
+    }
+}
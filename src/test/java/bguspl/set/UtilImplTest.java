@@ -0,0 +1,231 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    Config config;
+    UtilImpl util;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        config = new Config(new MockLogger(), properties);
+        util = new UtilImpl(config);
+    }
+
+    private List<Integer> fullDeck() {
+        return IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void featureMatrix_MatchesCardIds() {
+        // card ids are the features written in base featureSize, the first feature being the most significant
+        assertArrayEquals(new int[]{0, 0, 1, 2}, util.cardToFeatures(5));
+        assertArrayEquals(new int[]{2, 2, 2, 2}, util.cardToFeatures(80));
+        assertEquals(1, util.feature(5, 2));
+        ByteBuffer view = util.featureView(5);
+        assertTrue(view.isReadOnly());
+        assertEquals(4, view.remaining());
+        assertEquals(2, view.get(3));
+        assertArrayEquals(new int[][]{{0, 0, 0, 1}, {0, 0, 1, 0}}, util.cardsToFeatures(new int[]{1, 3}));
+    }
+
+    @Test
+    void completePair_FormsSet() {
+        PairCompletionTable pairs = new PairCompletionTable(config);
+        for (int first = 0; first < config.deckSize; ++first)
+            for (int second = first + 1; second < config.deckSize; ++second)
+                assertTrue(util.testSet(new int[]{first, second, pairs.complete(first, second)}));
+    }
+
+    @Test
+    void findSets_FullDeck() {
+        // every pair of the 81 cards completes to exactly one set, and each set has 3 pairs
+        List<int[]> sets = util.findSets(fullDeck(), Integer.MAX_VALUE);
+        assertEquals(81 * 80 / 6, sets.size());
+        sets.forEach(set -> assertTrue(util.testSet(set)));
+    }
+
+    @Test
+    void findSets_StopsAtCount() {
+        assertEquals(1, util.findSets(fullDeck(), 1).size());
+    }
+
+    @Test
+    void primitiveQueries_MatchFindSets() {
+        int[] cards = IntStream.range(0, config.deckSize).filter(card -> card % 7 != 0).toArray();
+        List<Integer> deck = Arrays.stream(cards).boxed().collect(Collectors.toList());
+        int expected = util.findSets(deck, Integer.MAX_VALUE).size();
+
+        assertEquals(expected, util.countSets(cards));
+        assertEquals(expected, util.streamSets(cards).count());
+        assertEquals(expected, util.streamSets(cards).parallel().count());
+        assertEquals(3, util.streamSets(cards).limit(3).count());
+        assertTrue(util.hasSet(cards));
+        assertFalse(util.hasSet(new int[]{0, 1, 3}));
+
+        BitSet bits = new BitSet();
+        Arrays.stream(cards).forEach(bits::set);
+        assertEquals(expected, util.findSets(bits, Integer.MAX_VALUE).size());
+
+        int containing = util.countSetsContaining(1, cards);
+        assertEquals(containing, util.findSetsContaining(1, cards, Integer.MAX_VALUE).size());
+        assertEquals(util.findSets(deck, Integer.MAX_VALUE).stream()
+                .filter(set -> Arrays.stream(set).anyMatch(card -> card == 1)).count(), containing);
+    }
+
+    @Test
+    void findSets_ParallelMatchesSequential() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "4");
+        properties.put("FeatureCount", "3");
+        properties.put("SetSolver", "general");
+        Config config = new Config(new MockLogger(), properties);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        List<int[]> sequential = new UtilImpl(config).findSets(deck, Integer.MAX_VALUE);
+
+        properties.put("SetSolver", "parallel");
+        properties.put("SearchThreads", "4");
+        UtilImpl util = new UtilImpl(new Config(new MockLogger(), properties));
+        List<int[]> parallel = util.findSets(deck, Integer.MAX_VALUE);
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); ++i)
+            assertArrayEquals(sequential.get(i), parallel.get(i));
+        assertEquals(5, util.findSets(deck, 5).size());
+
+        util.close(); // shuts the search threads down, queries run on the calling thread
+        assertEquals(sequential.size(), util.findSets(deck, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void findSets_GeneralizedMatchesBruteForce() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "4");
+        properties.put("FeatureCount", "3");
+        Config config = new Config(new MockLogger(), properties);
+        UtilImpl util = new UtilImpl(config);
+
+        int expected = 0;
+        for (int a = 0; a < config.deckSize; ++a)
+            for (int b = a + 1; b < config.deckSize; ++b)
+                for (int c = b + 1; c < config.deckSize; ++c)
+                    for (int d = c + 1; d < config.deckSize; ++d)
+                        if (isSet(util.cardsToFeatures(new int[]{a, b, c, d}))) ++expected;
+
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        List<int[]> sets = util.findSets(deck, Integer.MAX_VALUE);
+        assertEquals(expected, sets.size());
+        sets.forEach(set -> assertTrue(isSet(util.cardsToFeatures(set))));
+        assertEquals(expected * 4 / config.deckSize, util.findSetsContaining(7, deck, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void autoSolver_SettlesAfterCalibration() {
+        Properties properties = new Properties();
+        properties.put("ParallelSearchThreshold", "64");
+        AutoSetSolver solver = new AutoSetSolver(new Config(new MockLogger(), properties), util);
+        int[] cards = IntStream.range(0, config.deckSize).toArray();
+        BitSet present = new BitSet();
+        Arrays.stream(cards).forEach(present::set);
+
+        assertNull(solver.chosen(cards.length));
+        for (int i = 0; i < 20; ++i)
+            assertEquals(81 * 80 / 6, solver.findSets(cards, present, Integer.MAX_VALUE, null));
+        assertNotNull(solver.chosen(cards.length));
+    }
+
+    @Test
+    void autoSolver_KeepsSolverLimitsInsideABucket() {
+        Properties properties = new Properties();
+        properties.put("ParallelSearchThreshold", "70");
+        AutoSetSolver solver = new AutoSetSolver(new Config(new MockLogger(), properties), util);
+        for (int size : new int[]{40, 65}) { // brute force stops at 32 cards, parallel search starts at 70
+            int[] cards = IntStream.range(0, size).toArray();
+            BitSet present = new BitSet();
+            Arrays.stream(cards).forEach(present::set);
+            for (int i = 0; i < 20; ++i)
+                solver.findSets(cards, present, Integer.MAX_VALUE, null);
+            assertNotNull(solver.chosen(size));
+            assertNotEquals("brute", solver.chosen(size));
+            assertNotEquals("parallel", solver.chosen(size));
+        }
+        assertNull(solver.chosen(81)); // same bucket as 65 cards, but the parallel solver is eligible
+    }
+
+    @Test
+    void autoSolver_CalibratesEarlyExitsSeparately() {
+        Properties properties = new Properties();
+        properties.put("ParallelSearchThreshold", "64");
+        AutoSetSolver solver = new AutoSetSolver(new Config(new MockLogger(), properties), util);
+        int[] cards = IntStream.range(0, config.deckSize).toArray();
+        BitSet present = new BitSet();
+        Arrays.stream(cards).forEach(present::set);
+
+        for (int i = 0; i < 20; ++i)
+            assertEquals(1, solver.findSets(cards, present, 1, null));
+        assertNotNull(solver.chosen(cards.length, 1));
+        assertNull(solver.chosen(cards.length)); // full enumerations were never timed
+    }
+
+    @Test
+    void setSolver_UnknownNameIsRejected() {
+        Properties properties = new Properties();
+        properties.put("SetSolver", "no-such-solver");
+        Config config = new Config(new MockLogger(), properties);
+        assertThrows(IllegalArgumentException.class, () -> new UtilImpl(config));
+    }
+
+    @Test
+    void testSet_PackedMatchesFeatures() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "4");
+        properties.put("FeatureCount", "3");
+        Config config = new Config(new MockLogger(), properties);
+        UtilImpl util = new UtilImpl(config);
+
+        for (int a = 0; a < config.deckSize; ++a)
+            for (int b = a + 1; b < config.deckSize; b += 3)
+                for (int c = b + 1; c < config.deckSize; c += 5)
+                    for (int d = c + 1; d < config.deckSize; ++d) {
+                        int[] cards = {a, b, c, d};
+                        assertEquals(isSet(util.cardsToFeatures(cards)), util.testSet(cards));
+                    }
+    }
+
+    private static boolean isSet(int[][] features) {
+        for (int i = 0; i < features[0].length; ++i) {
+            final int feature = i;
+            long distinct = Arrays.stream(features).mapToInt(card -> card[feature]).distinct().count();
+            if (distinct != 1 && distinct != features.length) return false;
+        }
+        return true;
+    }
+
+    static class MockLogger extends Logger {
+        protected MockLogger() {
+            super("", null);
+        }
+    }
+}
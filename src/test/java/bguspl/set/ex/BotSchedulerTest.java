@@ -0,0 +1,70 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotSchedulerTest {
+
+    BotScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void acquire_CountsKeyPressesWithinTheBudget() {
+        scheduler = new BotScheduler(1, 5);
+        TokenBucket own = new TokenBucket(100);
+        for (int i = 0; i < 5; ++i)
+            assertEquals(0, scheduler.acquire(own));
+        assertTrue(scheduler.acquire(own) > 0); // the shared budget is exhausted
+        assertTrue(scheduler.acquire(null) > 0);
+        assertEquals(5, scheduler.issuedActions());
+    }
+
+    @Test
+    void acquire_RefundsTheBotsPermitWhenTheBudgetIsOut() {
+        scheduler = new BotScheduler(1, 1);
+        TokenBucket own = new TokenBucket(2);
+        assertEquals(0, scheduler.acquire(own));
+        long wait = scheduler.acquire(own);
+        assertTrue(wait > 0 && wait <= 1000); // the budget refills one press per second
+        assertEquals(0, own.tryAcquire()); // the rejected press did not use the bot's last permit
+        assertTrue(own.tryAcquire() > 0);
+        assertEquals(1, scheduler.issuedActions());
+    }
+
+    @Test
+    void acquire_ReturnsTheBotsOwnWait() {
+        scheduler = new BotScheduler(1, 0);
+        TokenBucket own = new TokenBucket(1);
+        assertEquals(0, scheduler.acquire(own));
+        long wait = scheduler.acquire(own);
+        assertTrue(wait > 0 && wait <= 1000);
+        assertEquals(1, scheduler.issuedActions());
+    }
+
+    @Test
+    void schedule_RunsStepsAndIgnoresThemAfterShutdown() throws InterruptedException {
+        scheduler = new BotScheduler(1, 0);
+        CountDownLatch stepped = new CountDownLatch(1);
+        Bot bot = new Bot(null, 12, 0, 0) {
+            @Override
+            void step() {
+                stepped.countDown();
+            }
+        };
+        scheduler.schedule(bot, 10);
+        assertTrue(stepped.await(1, TimeUnit.SECONDS));
+
+        scheduler.shutdown();
+        scheduler.schedule(bot, 0); // the game is over: no exception
+    }
+}
@@ -0,0 +1,81 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BotTest {
+
+    Player player;
+    BotScheduler scheduler;
+    @Mock
+    Util util;
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Table table;
+    @Mock
+    private Dealer dealer;
+    @Mock
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        // purposely do not find the configuration files (use defaults here).
+        Env env = new Env(logger, new Config(logger, (String) null), ui, util);
+        player = new Player(env, dealer, table, 0, false);
+        scheduler = new BotScheduler(1, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void bot_StepsOnTheSchedulerUntilItsPlayerWaits() throws InterruptedException {
+        when(dealer.getBotScheduler()).thenReturn(scheduler);
+        when(table.placeToken(eq(0), anyInt())).thenReturn(true);
+
+        Thread thread = new Thread(player);
+        thread.start();
+        for (int i = 0; i < 100 && !player.isWaiting(); ++i)
+            Thread.sleep(10);
+        assertTrue(player.isWaiting());
+        verify(dealer).setPlayersToCheck(player);
+
+        player.terminate();
+        thread.join(1000);
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    void bot_StoppedBotIsNotWokenUp() throws InterruptedException {
+        Bot bot = new Bot(player, 12, 0, 0);
+        assertEquals(Bot.State.WAITING, bot.state());
+        bot.stop();
+        scheduler.start(bot);
+        assertEquals(Bot.State.STOPPED, bot.state());
+        Thread.sleep(50);
+        verify(table, never()).placeToken(anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,59 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DealerSchedulerTest {
+
+    DealerScheduler scheduler = new DealerScheduler();
+
+    @Test
+    void awaitUntil_ReturnsAtTheDeadlineWithoutASignal() {
+        long start = System.currentTimeMillis();
+        assertFalse(scheduler.awaitUntil(start + 100));
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed >= 100 && elapsed < 1000);
+        assertFalse(scheduler.awaitUntil(System.currentTimeMillis() - 1)); // a past deadline does not wait
+    }
+
+    @Test
+    void signal_WakesTheDealerEarly() throws InterruptedException {
+        CountDownLatch parked = new CountDownLatch(1);
+        Thread signaller = new Thread(() -> {
+            try {
+                parked.await();
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            scheduler.signal();
+        });
+        signaller.start();
+
+        long start = System.currentTimeMillis();
+        parked.countDown();
+        assertTrue(scheduler.awaitUntil(start + 10000));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        signaller.join(1000);
+    }
+
+    @Test
+    void signal_BeforeTheDealerParksIsNotLost() throws InterruptedException {
+        Thread signaller = new Thread(scheduler::signal);
+        signaller.start();
+        signaller.join(1000);
+
+        long start = System.currentTimeMillis();
+        assertTrue(scheduler.awaitUntil(start + 10000));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertFalse(scheduler.awaitUntil(System.currentTimeMillis() + 50)); // the signal was consumed
+
+        scheduler.signal();
+        scheduler.signal(); // signals do not pile up
+        assertTrue(scheduler.awaitUntil(System.currentTimeMillis() + 10000));
+        assertFalse(scheduler.awaitUntil(System.currentTimeMillis() + 50));
+    }
+}
@@ -4,15 +4,19 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DealerTest {
@@ -28,8 +32,7 @@ class DealerTest {
    
 
     Dealer dealer;
-    private Integer[] slotToCard;
-    private Integer[] cardToSlot;
+    private int[] slotToCard;
     
     private Player[] players;
      private Player playerzero;
@@ -48,10 +51,10 @@ class DealerTest {
         properties.put("PlayerKeys2", "85,73,79,80");
         MockLogger logger = new MockLogger();
         Config config = new Config(logger, properties);
-        slotToCard = new Integer[config.tableSize];
-        cardToSlot = new Integer[config.deckSize];
+        slotToCard = new int[config.tableSize];
+        Arrays.fill(slotToCard, Table.NO_CARD);
         Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
-        table = new Table(env, slotToCard, cardToSlot);
+        table = new Table(env, slotToCard);
         players = new Player[2];
       players[0] = playerzero;
         players[1] = playerone;
@@ -72,6 +75,110 @@ class DealerTest {
         
         
     }
+    @Test
+    void setPlayersToCheck_KeepsOnePendingClaimPerPlayer() {
+        dealer.setPlayersToCheck(playerone);
+        dealer.setPlayersToCheck(playerzero);
+        dealer.setPlayersToCheck(playerone);
+        assertEquals(2, dealer.playersToCheck.size());
+        Claim first = dealer.playersToCheck.poll();
+        Claim second = dealer.playersToCheck.poll();
+        assertTrue(first.player == playerone && second.player == playerzero);
+        assertTrue(first.sequence < second.sequence);
+    }
+
+    @Test
+    void claimVerifier_WorkersAgreeWithTheDealer() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        Config config = new Config(new MockLogger(), properties);
+        Util util = new UtilImpl(config);
+        ClaimVerifier workers = new ClaimVerifier(util, config.featureSize, 2);
+        ClaimVerifier inline = new ClaimVerifier(util, config.featureSize, 0);
+
+        // cards 0, 1 and 2 form a set, cards 0, 1 and 5 do not
+        long[] set = {1, 2, 3};
+        long[] notSet = {1, 2, 6};
+        Claim[] claims = {new Claim(1, playerzero, new int[]{0, 1, 2}, set),
+                new Claim(2, playerone, new int[]{0, 1, 2}, notSet),
+                new Claim(3, playerzero, new int[]{0, 1, 2}, set)};
+        for (Claim claim : claims)
+            workers.submit(claim);
+        for (Claim claim : claims) {
+            workers.await(claim);
+            Claim copy = new Claim(claim.sequence, claim.player, claim.slots, claim.words);
+            inline.await(copy);
+            assertEquals(copy.legal, claim.legal);
+        }
+        assertTrue(claims[0].legal);
+        assertFalse(claims[1].legal);
+        workers.shutdown();
+    }
+
+    /**
+     * Creates a dealer with a real Util, a set (cards 0, 1 and 2) in slots 0 to 2, and the tokens of player 0 on it.
+     */
+    private Dealer dealerWithClaimedSet() {
+        Properties properties = new Properties();
+        properties.put("Rows", "2");
+        properties.put("Columns", "2");
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PlayerKeys1", "81,87,69,82");
+        properties.put("PlayerKeys2", "85,73,79,80");
+        Config config = new Config(new MockLogger(), properties);
+        int[] cards = new int[config.tableSize];
+        Arrays.fill(cards, Table.NO_CARD);
+        Env env = new Env(new MockLogger(), config, new MockUserInterface(), new UtilImpl(config));
+        table = new Table(env, cards);
+        for (int slot = 0; slot < 3; ++slot)
+            table.placeCard(slot, slot);
+        Player[] players = new Player[2];
+        Dealer dealer = new Dealer(env, table, players);
+        for (int id = 0; id < players.length; ++id)
+            players[id] = new Player(env, dealer, table, id, false);
+        playerzero = players[0];
+        for (int slot = 0; slot < 3; ++slot)
+            assertTrue(table.placeToken(0, slot));
+        dealer.setPlayersToCheck(playerzero);
+        return dealer;
+    }
+
+    @Test
+    void judge_CurrentClaimScores() {
+        Dealer dealer = dealerWithClaimedSet();
+        Claim claim = dealer.playersToCheck.peek();
+        dealer.removeCardsFromTable();
+        assertEquals(Claim.Verdict.POINT, claim.verdict);
+        assertEquals(1, playerzero.getScore());
+    }
+
+    @Test
+    void judge_ReleasesAClaimWhoseSlotWasReplaced() {
+        Dealer dealer = dealerWithClaimedSet();
+        Claim claim = dealer.playersToCheck.peek();
+        table.placeCard(2, 2); // the same card again, but the slot version goes up
+        assertTrue(table.hasToken(0, 2));
+        assertEquals(Table.card(claim.words[2]), table.cardAt(2));
+        dealer.removeCardsFromTable();
+        assertEquals(Claim.Verdict.RELEASED, claim.verdict);
+        assertEquals(0, playerzero.getScore());
+        assertEquals(0, table.cardAt(0)); // nothing was committed
+    }
+
+    @Test
+    void judge_ReleasesAClaimThatLostAToken() {
+        Dealer dealer = dealerWithClaimedSet();
+        Claim claim = dealer.playersToCheck.peek();
+        assertTrue(table.removeToken(0, 1));
+        dealer.removeCardsFromTable();
+        assertEquals(Claim.Verdict.RELEASED, claim.verdict);
+        assertEquals(0, playerzero.getScore());
+        assertEquals(1, table.cardAt(1));
+    }
+
     @Test
     void placeAllCards(){
        
@@ -150,7 +257,7 @@ class DealerTest {
 
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
-            return null;
+            return new LinkedList<>();
         }
 
         @Override
@@ -0,0 +1,67 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeckTest {
+
+    private static int[] drawAll(Deck deck) {
+        int[] drawn = new int[deck.size()];
+        for (int i = 0; i < drawn.length; ++i)
+            drawn[i] = deck.draw();
+        return drawn;
+    }
+
+    @Test
+    void draw_ReturnsEveryCardOnce() {
+        Deck deck = new Deck(81, new Random());
+        BitSet drawn = new BitSet();
+        while (!deck.isEmpty()) {
+            int size = deck.size();
+            int card = deck.draw();
+            assertEquals(size - 1, deck.size());
+            assertTrue(card >= 0 && card < 81);
+            assertFalse(drawn.get(card));
+            drawn.set(card);
+        }
+        assertEquals(81, drawn.cardinality());
+        assertEquals(0, deck.toArray().length);
+    }
+
+    @Test
+    void add_PutsDrawnCardsBack() {
+        Deck deck = new Deck(12, new Random());
+        int first = deck.draw();
+        int second = deck.draw();
+        assertEquals(10, deck.size());
+        assertFalse(Arrays.stream(deck.toArray()).anyMatch(card -> card == first || card == second));
+
+        deck.add(first);
+        deck.add(second);
+        assertEquals(12, deck.size());
+        int[] cards = drawAll(deck);
+        Arrays.sort(cards);
+        for (int card = 0; card < 12; ++card)
+            assertEquals(card, cards[card]);
+    }
+
+    @Test
+    void draw_FixedSeedRepeatsTheOrder() {
+        int[] order = drawAll(new Deck(81, new Random(42)));
+        assertArrayEquals(order, drawAll(new Deck(81, new Random(42))));
+
+        Deck deck = new Deck(81, new Random(42)); // returning cards keeps the game repeatable too
+        Deck same = new Deck(81, new Random(42));
+        deck.add(deck.draw());
+        same.add(same.draw());
+        assertArrayEquals(drawAll(deck), drawAll(same));
+    }
+}
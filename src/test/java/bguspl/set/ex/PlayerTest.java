@@ -14,9 +14,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-//import static org.mockito.ArgumentMatchers.eq;
-//import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -97,4 +99,30 @@ class PlayerTest {
        
        
     }
-}
\ No newline at end of file
+
+    @Test
+    void keyPressed_WaitsForTheVerdict() throws InterruptedException {
+        Env env = new Env(logger, new Config(logger, (String) null), ui, util);
+        Player human = new Player(env, dealer, table, 1, true);
+        when(table.placeToken(eq(1), anyInt())).thenReturn(true);
+
+        human.keyPressed(0);
+        human.keyPressed(1);
+        human.keyPressed(2);
+        assertTrue(human.isWaiting());
+        verify(dealer).setPlayersToCheck(human);
+        human.keyPressed(3); // ignored until the verdict
+        assertEquals(3, human.getTokens());
+
+        Thread thread = new Thread(human);
+        thread.start();
+        human.receive(Claim.Verdict.RELEASED);
+        for (int i = 0; i < 100 && human.isWaiting(); ++i)
+            Thread.sleep(10);
+        assertFalse(human.isWaiting());
+
+        human.terminate();
+        thread.join(1000);
+        assertFalse(thread.isAlive());
+    }
+}
@@ -0,0 +1,77 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemainingSetsTest {
+
+    UtilImpl util;
+    RemainingSets remainingSets;
+    int[] deck;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "3");
+        Config config = new Config(new TableTest.MockLogger(), properties);
+        util = new UtilImpl(config);
+        remainingSets = new RemainingSets(util);
+        deck = IntStream.range(0, config.deckSize).toArray();
+        remainingSets.reset(deck);
+    }
+
+    @Test
+    void reset_CountsAllTheSets() {
+        assertEquals(27 * 26 / 6, remainingSets.count());
+        assertTrue(remainingSets.hasSet());
+
+        remainingSets.reset(new int[]{0, 1, 3});
+        assertEquals(util.countSets(new int[]{0, 1, 3}), remainingSets.count());
+    }
+
+    @Test
+    void remove_KeepsTheCountOfTheCardsInPlay() {
+        BitSet inPlay = new BitSet();
+        for (int card : deck)
+            inPlay.set(card);
+        for (int card : util.findSets(deck, 1).get(0)) { // cards that are part of sets
+            remainingSets.remove(card);
+            inPlay.clear(card);
+            assertEquals(util.countSets(inPlay.stream().toArray()), remainingSets.count());
+        }
+
+        int count = remainingSets.count();
+        remainingSets.remove(deck[0]);
+        remainingSets.remove(deck[0]); // already out of the game
+        inPlay.clear(deck[0]);
+        assertTrue(count >= remainingSets.count());
+        assertEquals(util.countSets(inPlay.stream().toArray()), remainingSets.count());
+    }
+
+    @Test
+    void hasSet_TurnsFalseOnceTheLastSetIsBroken() {
+        BitSet inPlay = new BitSet();
+        for (int card : deck)
+            inPlay.set(card);
+        while (remainingSets.hasSet()) {
+            int card = util.findSets(inPlay, 1).get(0)[0];
+            remainingSets.remove(card);
+            inPlay.clear(card);
+            assertEquals(util.countSets(inPlay.stream().toArray()), remainingSets.count());
+        }
+        assertEquals(0, remainingSets.count());
+        assertFalse(util.hasSet(inPlay.stream().toArray()));
+        assertFalse(inPlay.isEmpty()); // cards are left, but no set can be formed from them
+    }
+}
@@ -0,0 +1,43 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetIndexTest {
+
+    @Test
+    void addAndRemove_MatchAFreshCount() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        Config config = new Config(new TableTest.MockLogger(), properties);
+        UtilImpl util = new UtilImpl(config);
+        SetIndex index = new SetIndex(util, 4); // grows past its initial capacity
+        BitSet indexed = new BitSet();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2000; ++i) {
+            int card = random.nextInt(config.deckSize);
+            if (indexed.get(card) && random.nextBoolean()) {
+                index.remove(card);
+                indexed.clear(card);
+            } else if (indexed.cardinality() < 20) {
+                index.add(card);
+                indexed.set(card);
+            }
+            assertEquals(util.countSets(indexed.stream().toArray()), index.size());
+        }
+        index.iterator().forEachRemaining(set -> {
+            for (int card : set)
+                assertTrue(indexed.get(card));
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SmartBotTest {
+
+    Player player;
+    @Mock
+    Util util;
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Table table;
+    @Mock
+    private HintService hints;
+    @Mock
+    private Dealer dealer;
+    @Mock
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        // purposely do not find the configuration files (use defaults here).
+        Env env = new Env(logger, new Config(logger, (String) null), ui, util);
+        player = new Player(env, dealer, table, 0, false);
+    }
+
+    @Test
+    void smartBot_TakesBackStrayTokensAndPlacesTheSet() {
+        when(table.slotCount()).thenReturn(12);
+        when(table.version()).thenReturn(1L);
+        when(table.getHintService()).thenReturn(hints);
+        when(hints.hints()).thenReturn(Collections.singletonList(new HintService.Hint(new int[]{0, 4, 7}, new int[]{3, 9, 11})));
+        SmartBot bot = new SmartBot(player, table, 10, 0, 0, 0);
+
+        assertEquals(0, bot.think()); // no reaction time
+        when(table.tokensOf(0)).thenReturn(new int[]{0, 5});
+        assertEquals(5, bot.nextSlot()); // slot 5 is not on the set
+        when(table.tokensOf(0)).thenReturn(new int[]{0});
+        when(table.hasToken(0, 0)).thenReturn(true);
+        when(table.hasToken(0, 4)).thenReturn(false);
+        assertEquals(4, bot.nextSlot());
+        assertEquals(0, bot.think()); // the table did not change: same plan
+        verify(hints).hints();
+    }
+
+    @Test
+    void smartBot_WaitsWhileThereIsNoSet() {
+        when(table.slotCount()).thenReturn(12);
+        when(table.version()).thenReturn(1L);
+        when(table.getHintService()).thenReturn(hints);
+        when(hints.hints()).thenReturn(Collections.<HintService.Hint>emptyList());
+        SmartBot bot = new SmartBot(player, table, 10, 0, 500, 0);
+
+        assertEquals(500, bot.think()); // nothing to press until the table changes
+    }
+
+    @Test
+    void smartBot_ReactsAfterTheReactionTime() {
+        when(table.slotCount()).thenReturn(12);
+        when(table.version()).thenReturn(1L);
+        when(table.getHintService()).thenReturn(hints);
+        when(hints.hints()).thenReturn(Collections.singletonList(new HintService.Hint(new int[]{0, 4, 7}, new int[]{3, 9, 11})));
+        SmartBot bot = new SmartBot(player, table, 10, 0, 500, 0);
+
+        long wait = bot.think();
+        assertTrue(wait > 400 && wait <= 500);
+    }
+}
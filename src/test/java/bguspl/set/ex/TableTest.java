@@ -4,25 +4,41 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
-    private Integer[] slotToCard;
-    private Integer[] cardToSlot;
+    private int[] slotToCard;
 
     @BeforeEach
     void setUp() {
 
+        MockLogger logger = new MockLogger();
+        Config config = new Config(logger, properties());
+        slotToCard = new int[config.tableSize];
+        Arrays.fill(slotToCard, Table.NO_CARD);
+
+        Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
+        table = new Table(env, slotToCard);
+    }
+
+    private static Properties properties() {
         Properties properties = new Properties();
         properties.put("Rows", "2");
         properties.put("Columns", "2");
@@ -31,36 +47,27 @@ class TableTest {
         properties.put("TableDelaySeconds", "0");
         properties.put("PlayerKeys1", "81,87,69,82");
         properties.put("PlayerKeys2", "85,73,79,80");
-        MockLogger logger = new MockLogger();
-        Config config = new Config(logger, properties);
-        slotToCard = new Integer[config.tableSize];
-        cardToSlot = new Integer[config.deckSize];
-
-        Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
-        table = new Table(env, slotToCard, cardToSlot);
+        return properties;
     }
 
     private int fillSomeSlots() {
-        slotToCard[1] = 3;
-        slotToCard[2] = 5;
-        cardToSlot[3] = 1;
-        cardToSlot[5] = 2;
+        table.placeCard(3, 1);
+        table.placeCard(5, 2);
 
         return 2;
     }
 
     private void fillAllSlots() {
         for (int i = 0; i < slotToCard.length; ++i) {
-            slotToCard[i] = i;
-            cardToSlot[i] = i;
+            table.placeCard(i, i);
         }
     }
 
     private void placeSomeCardsAndAssert() throws InterruptedException {
         table.placeCard(8, 2);
 
-        assertEquals(8, (int) slotToCard[2]);
-        assertEquals(2, (int) cardToSlot[8]);
+        assertEquals(8, table.cardAt(2));
+        assertEquals(2, table.slotOf(8));
     }
 
     @Test
@@ -100,10 +107,11 @@ class TableTest {
     @Test
     void removeToken() throws InterruptedException {
         table.placeCard(1, 0);
-        table.playerTokens[0][0][0] = true;
+        assertTrue(table.placeToken(0, 0));
+        assertTrue(table.hasToken(0, 0));
         table.removeToken(0, 0);
 
-        assertFalse(table.playerTokens[0][0][0]);
+        assertFalse(table.hasToken(0, 0));
 
     }
 
@@ -113,10 +121,141 @@ class TableTest {
         fillAllSlots();
         for (int i = 0; i < slotToCard.length; i++) {
             table.removeCard(i);
-            assertEquals(slotToCard[i], null);
+            assertEquals(Table.NO_CARD, table.cardAt(i));
+            assertFalse(table.isOnTable(i));
+
+        }
+
+    }
+
+    @Test
+    void placeToken_FollowsSlotVersions() {
+        assertFalse(table.placeToken(0, 1));
+        table.placeCard(7, 1);
+        long word = table.slotWord(1);
+        assertEquals(7, Table.card(word));
+        assertTrue(table.placeToken(0, 1));
+        assertTrue(table.placeToken(1, 1));
+
+        table.removeCard(1);
+        assertEquals(Table.NO_CARD, table.cardAt(1));
+        assertEquals(Table.version(word) + 1, Table.version(table.slotWord(1)));
+        assertFalse(table.hasToken(0, 1));
+        assertFalse(table.hasToken(1, 1));
+        assertFalse(table.placeToken(0, 1));
+    }
 
+    @Test
+    void tokenHolders_AreIndexedPerSlot() {
+        table.placeCard(4, 2);
+        assertFalse(table.hasOtherTokens(0, 2));
+        table.placeToken(0, 2);
+        assertFalse(table.hasOtherTokens(0, 2));
+        assertTrue(table.hasOtherTokens(1, 2));
+        table.placeToken(1, 2);
+        assertTrue(table.hasOtherTokens(0, 2));
+
+        List<Integer> holders = new ArrayList<>();
+        table.forEachPlayerOn(2, holders::add);
+        assertEquals(Arrays.asList(0, 1), holders);
+
+        table.removeToken(0, 2);
+        holders.clear();
+        table.forEachPlayerOn(2, holders::add);
+        assertEquals(Arrays.asList(1), holders);
+    }
+
+    @Test
+    void tokenBitmap_TracksPlayersAndSlots() {
+        fillAllSlots();
+        table.placeToken(0, 0);
+        table.placeToken(0, 3);
+        table.placeToken(1, 3);
+        assertArrayEquals(new int[]{0, 3}, table.tokensOf(0));
+        assertEquals(2, table.countTokens(0));
+        assertArrayEquals(new long[]{1, 0, 0, 3}, table.tokenSnapshot());
+
+        table.removeCard(3);
+        assertArrayEquals(new int[]{0}, table.tokensOf(0));
+        assertEquals(0, table.countTokens(1));
+
+        table.removeTokens(0);
+        assertEquals(0, table.countTokens(0));
+        assertArrayEquals(new long[4], table.tokenSnapshot());
+    }
+
+    @Test
+    void placeCard_CommitsBeforeTheDelayedDisplay() {
+        Properties properties = properties();
+        properties.put("TableDelaySeconds", "0.05");
+        Config config = new Config(new MockLogger(), properties);
+        List<Integer> shown = new ArrayList<>();
+        Env env = new Env(new MockLogger(), config, new MockUserInterface() {
+            @Override
+            public void placeCard(int card, int slot) {
+                synchronized (shown) {
+                    shown.add(card);
+                }
+            }
+        }, new MockUtil());
+        Table table = new Table(env);
+
+        for (int slot = 0; slot < config.tableSize; ++slot) {
+            table.placeCard(slot + 10, slot);
+            assertEquals(slot + 10, table.cardAt(slot));
         }
+        assertTrue(table.placeToken(0, 3));
 
+        table.flushDisplay();
+        synchronized (shown) {
+            assertEquals(Arrays.asList(10, 11, 12, 13), shown);
+        }
+    }
+
+    @Test
+    void setIndex_FollowsPlacedAndRemovedCards() {
+        Config config = new Config(new MockLogger(), properties());
+        Env env = new Env(new MockLogger(), config, new MockUserInterface(), new UtilImpl(config));
+        Table table = new Table(env);
+
+        // cards 0, 1 and 2 differ only in their last feature, so they form a set
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(4, 3);
+        assertFalse(table.hasSet());
+        table.placeCard(2, 2);
+        assertTrue(table.hasSet());
+        assertEquals(1, table.setCount());
+        assertArrayEquals(new int[]{0, 1, 2}, table.setIterator().next());
+
+        table.removeCard(1);
+        assertFalse(table.hasSet());
+        assertEquals(0, table.setCount());
+    }
+
+    @Test
+    void hintService_CachesPerTableVersion() {
+        Config config = new Config(new MockLogger(), properties());
+        Env env = new Env(new MockLogger(), config, new MockUserInterface(), new UtilImpl(config));
+        Table table = new Table(env);
+        table.placeCard(2, 0);
+        table.placeCard(0, 3);
+        table.placeCard(1, 1);
+
+        HintService hints = table.getHintService();
+        List<HintService.Hint> first = hints.hints();
+        assertEquals(1, first.size());
+        assertArrayEquals(new int[]{0, 1, 3}, first.get(0).slots);
+        assertArrayEquals(new int[]{2, 1, 0}, first.get(0).cards);
+        assertSame(first, hints.hints());
+
+        List<int[]> delivered = new ArrayList<>();
+        hints.setSink((slots, cards) -> delivered.add(slots));
+        table.hints();
+        assertEquals(1, delivered.size());
+
+        table.removeCard(3);
+        assertTrue(hints.hints().isEmpty());
     }
 
     static class MockUserInterface implements UserInterface {
@@ -187,7 +326,7 @@ class TableTest {
 
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
-            return null;
+            return new LinkedList<>();
         }
 
         @Override
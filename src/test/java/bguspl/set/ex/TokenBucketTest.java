@@ -0,0 +1,47 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void tryAcquire_DrainsABurstOfOneSecond() {
+        TokenBucket bucket = new TokenBucket(10);
+        for (int i = 0; i < 10; ++i)
+            assertEquals(0, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+        assertTrue(wait > 0 && wait <= 100); // one permit every 100 ms
+    }
+
+    @Test
+    void tryAcquire_RefillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100);
+        while (bucket.tryAcquire() == 0) ;
+        Thread.sleep(50); // about 5 permits
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_SlowRateStillAllowsOnePermit() {
+        TokenBucket bucket = new TokenBucket(0.5);
+        assertEquals(0, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+        assertTrue(wait > 1900 && wait <= 2000); // one permit every 2 seconds
+    }
+
+    @Test
+    void refund_ReturnsAnUnusedPermit() {
+        TokenBucket bucket = new TokenBucket(1);
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+        bucket.refund();
+        assertEquals(0, bucket.tryAcquire());
+        bucket.refund();
+        bucket.refund(); // never above the capacity
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+}